@@ -0,0 +1,53 @@
+package com.mxverse.storage.r2vault.config;
+
+import com.mxverse.storage.r2vault.util.AbortScope;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.utils.AttributeMap;
+
+/**
+ * {@link SdkHttpClient} that registers every request it prepares with the calling
+ * thread's {@link AbortScope}. The blocking client prepares and executes requests on the
+ * calling thread, so a scope sees each attempt of the calls made inside it.
+ */
+public final class AbortScopeHttpClient implements SdkHttpClient {
+
+    private final SdkHttpClient delegate;
+
+    private AbortScopeHttpClient(SdkHttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wraps the clients built by {@code builder}, leaving their lifecycle to the SDK.
+     */
+    public static SdkHttpClient.Builder<?> wrap(SdkHttpClient.Builder<?> builder) {
+        return new Builder(builder);
+    }
+
+    @Override
+    public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+        ExecutableHttpRequest prepared = delegate.prepareRequest(request);
+        AbortScope.register(prepared);
+        return prepared;
+    }
+
+    @Override
+    public String clientName() {
+        return delegate.clientName();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private record Builder(SdkHttpClient.Builder<?> delegate) implements SdkHttpClient.Builder<Builder> {
+
+        @Override
+        public SdkHttpClient buildWithDefaults(AttributeMap serviceDefaults) {
+            return new AbortScopeHttpClient(delegate.buildWithDefaults(serviceDefaults));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.mxverse.storage.r2vault.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
@@ -8,6 +10,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
 import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configuration properties for the primary datasource.
@@ -44,4 +49,137 @@ public class DataSourceProperties {
      * The fully qualified name of the JDBC driver class.
      */
     private String driverClassName;
+
+    /**
+     * Connection pool sizing, timeouts and leak detection.
+     */
+    @Valid
+    private Pool pool = new Pool();
+
+    /**
+     * Server-side prepared statement settings for the PostgreSQL driver.
+     */
+    @Valid
+    private Statements statements = new Statements();
+
+    /**
+     * Read replicas serving read-only transactions.
+     */
+    @Valid
+    private Replicas replicas = new Replicas();
+
+    /**
+     * Settings for the Hikari connection pool.
+     */
+    @Getter
+    @Setter
+    public static class Pool {
+
+        /**
+         * Maximum number of connections, idle and in use. Upload bursts wait for a
+         * connection beyond this instead of overloading the database.
+         */
+        @Min(value = 1, message = "Database pool size must be at least 1")
+        private int maximumPoolSize = 20;
+
+        /**
+         * Idle connections kept ready for bursts.
+         */
+        @Min(value = 0, message = "Database minimum idle connections must not be negative")
+        private int minimumIdle = 5;
+
+        /**
+         * How long a request waits for a connection before failing.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Connections above {@link #minimumIdle} idle longer than this are closed.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * Connections are replaced after this age; keep it below any database or proxy timeout.
+         */
+        private Duration maxLifetime = Duration.ofMinutes(30);
+
+        /**
+         * A connection held longer than this is logged with the stack trace that borrowed
+         * it. Zero disables leak detection.
+         */
+        private Duration leakDetectionThreshold = Duration.ofSeconds(60);
+    }
+
+    /**
+     * Settings for server-side prepared statements, applied to PostgreSQL URLs only.
+     */
+    @Getter
+    @Setter
+    public static class Statements {
+
+        /**
+         * Executions of a statement before the driver switches it to a server-side
+         * prepared statement.
+         */
+        @Min(value = 0, message = "Prepare threshold must not be negative")
+        private int prepareThreshold = 5;
+
+        /**
+         * Prepared statements cached per connection.
+         */
+        @Min(value = 0, message = "Prepared statement cache size must not be negative")
+        private int cacheQueries = 256;
+
+        /**
+         * Memory for cached prepared statements per connection, in MiB.
+         */
+        @Min(value = 0, message = "Prepared statement cache memory must not be negative")
+        private int cacheSizeMib = 5;
+    }
+
+    /**
+     * Settings for routing read-only transactions to read replicas.
+     */
+    @Getter
+    @Setter
+    public static class Replicas {
+
+        /**
+         * JDBC URLs of the replicas. Empty sends everything to the primary.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * The replica username, or the primary's when blank.
+         */
+        private String username;
+
+        /**
+         * The replica password, or the primary's when blank.
+         */
+        private String password;
+
+        /**
+         * Maximum connections per replica pool.
+         */
+        @Min(value = 1, message = "Replica pool size must be at least 1")
+        private int maximumPoolSize = 10;
+
+        /**
+         * How often each replica's connectivity and replication lag are checked.
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+        /**
+         * A replica lagging further behind the primary than this is taken out of rotation.
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /**
+         * After a client's write commits, its reads stay on the primary for this long so
+         * it never sees a replica that has not caught up with its own change. Carried in a
+         * cookie, so it holds across instances.
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    }
 }
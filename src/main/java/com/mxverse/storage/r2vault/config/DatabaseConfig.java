@@ -1,11 +1,16 @@
 package com.mxverse.storage.r2vault.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configuration class for the primary data source.
@@ -13,6 +18,11 @@ import javax.sql.DataSource;
  * This class instantiates a {@link DataSource} bean based on the validated
  * {@link DataSourceProperties}. It ensures that the application has a reliable
  * connection to the PostgreSQL database.
+ * <p>
+ * The pool is an explicitly sized {@link HikariDataSource} publishing its metrics
+ * ({@code hikaricp.connections.active}, {@code .idle}, {@code .pending} and the
+ * {@code .acquire} timer) to Micrometer. Each read replica gets a pool of its own,
+ * tagged {@code r2vault-db-replica-<n>}.
  *
  * @see DataSourceProperties
  */
@@ -24,16 +34,69 @@ public class DatabaseConfig {
 
     /**
      * Creates and configures the DataSource bean using the validated properties.
+     * <p>
+     * Without replica URLs this is the primary pool itself; with them, read-only
+     * transactions are routed to the replicas by a {@link ReplicaRoutingDataSource}.
      *
+     * @param readYourWritesGuard Keeps a user's reads on the primary after their writes.
+     * @param meterRegistry       Registry for the pool metrics.
      * @return A configured DataSource instance.
      */
     @Bean
-    public DataSource dataSource() {
-        return DataSourceBuilder.create()
-                .url(dataSourceProperties.getUrl())
-                .username(dataSourceProperties.getUsername())
-                .password(dataSourceProperties.getPassword())
-                .driverClassName(dataSourceProperties.getDriverClassName())
-                .build();
+    public DataSource dataSource(ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
+        HikariDataSource primary = createPool("r2vault-db", dataSourceProperties.getUrl(),
+                dataSourceProperties.getUsername(), dataSourceProperties.getPassword(),
+                dataSourceProperties.getPool().getMaximumPoolSize(), meterRegistry);
+
+        DataSourceProperties.Replicas replicas = dataSourceProperties.getReplicas();
+        if (replicas.getUrls().isEmpty()) {
+            return primary;
+        }
+
+        String username = StringUtils.hasText(replicas.getUsername())
+                ? replicas.getUsername() : dataSourceProperties.getUsername();
+        String password = StringUtils.hasText(replicas.getPassword())
+                ? replicas.getPassword() : dataSourceProperties.getPassword();
+        List<HikariDataSource> replicaPools = new ArrayList<>();
+        for (int i = 0; i < replicas.getUrls().size(); i++) {
+            HikariDataSource replica = createPool("r2vault-db-replica-" + i, replicas.getUrls().get(i),
+                    username, password, replicas.getMaximumPoolSize(), meterRegistry);
+            replica.setReadOnly(true);
+            replicaPools.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicaPools, replicas, readYourWritesGuard, meterRegistry);
+    }
+
+    private HikariDataSource createPool(String poolName, String url, String username, String password,
+                                        int maximumPoolSize, MeterRegistry meterRegistry) {
+        DataSourceProperties.Pool pool = dataSourceProperties.getPool();
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        if (dataSourceProperties.getDriverClassName() != null) {
+            dataSource.setDriverClassName(dataSourceProperties.getDriverClassName());
+        }
+
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(Math.min(pool.getMinimumIdle(), maximumPoolSize));
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        dataSource.setLeakDetectionThreshold(pool.getLeakDetectionThreshold().toMillis());
+
+        if (url.startsWith("jdbc:postgresql:")) {
+            DataSourceProperties.Statements statements = dataSourceProperties.getStatements();
+            dataSource.addDataSourceProperty("prepareThreshold", statements.getPrepareThreshold());
+            dataSource.addDataSourceProperty("preparedStatementCacheQueries", statements.getCacheQueries());
+            dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", statements.getCacheSizeMib());
+            // Lets the driver send a batch of inserts as multi-row statements
+            dataSource.addDataSourceProperty("reWriteBatchedInserts", true);
+        }
+
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
     }
 }
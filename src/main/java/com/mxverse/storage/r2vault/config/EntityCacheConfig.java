@@ -0,0 +1,77 @@
+package com.mxverse.storage.r2vault.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuration of the regions behind Hibernate's second-level and query caches.
+ * <p>
+ * Hibernate talks to the cache through JCache; the provider is Caffeine, so every region
+ * is a local, size-bounded cache with a write TTL. The regions are created here from
+ * {@link EntityCacheProperties}, and Hibernate is configured to fail rather than silently
+ * create an unbounded region for a name that is not listed.
+ *
+ * @see EntityCacheProperties
+ */
+@Configuration
+@RequiredArgsConstructor
+public class EntityCacheConfig {
+
+    private final EntityCacheProperties entityCacheProperties;
+
+    /**
+     * Creates a cache manager holding the entity, natural-id and query regions.
+     *
+     * @return The JCache manager handed to Hibernate.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // A manager of its own, so application contexts in the same JVM do not share regions
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("r2vault-hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        createRegion(cacheManager, "users", entityCacheProperties.getUsers());
+        createRegion(cacheManager, "users-by-username", entityCacheProperties.getUsers());
+        createRegion(cacheManager, "account-keys", entityCacheProperties.getAccountKeys());
+        createRegion(cacheManager, "account-key-lookups", entityCacheProperties.getQueries());
+        createRegion(cacheManager, "default-query-results-region", entityCacheProperties.getQueries());
+        // Must outlive every cached query result, so it is neither bounded nor expired
+        cacheManager.createCache("default-update-timestamps-region", new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager to Hibernate's JCache region factory.
+     *
+     * @param hibernateCacheManager The manager holding the regions.
+     * @return The customizer.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, EntityCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.getMaxEntries()));
+        configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
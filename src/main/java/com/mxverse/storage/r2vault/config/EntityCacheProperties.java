@@ -0,0 +1,72 @@
+package com.mxverse.storage.r2vault.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for Hibernate's second-level and query caches.
+ * <p>
+ * These properties are bound from the {@code app.entity-cache} prefix and size the
+ * local cache regions created by {@link EntityCacheConfig}. The caches are per instance:
+ * a change made through another instance is only seen here once the entry expires, so
+ * the time-to-live bounds how stale a cached user or account key can be.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.entity-cache")
+@Validated
+@Getter
+@Setter
+public class EntityCacheProperties {
+
+    /**
+     * Users, by id and by username.
+     */
+    @Valid
+    private Region users = new Region(10_000, Duration.ofMinutes(1));
+
+    /**
+     * Account keys, by id.
+     */
+    @Valid
+    private Region accountKeys = new Region(10_000, Duration.ofMinutes(10));
+
+    /**
+     * Cached query results, such as the account key lookup by user.
+     */
+    @Valid
+    private Region queries = new Region(10_000, Duration.ofMinutes(10));
+
+    /**
+     * Size and lifetime of a cache region.
+     */
+    @Getter
+    @Setter
+    public static class Region {
+
+        /**
+         * Entries kept before the least recently used are evicted.
+         */
+        @Min(value = 1, message = "Entity cache size must be at least 1")
+        private long maxEntries;
+
+        /**
+         * Entries expire this long after they were written.
+         */
+        private Duration ttl;
+
+        public Region() {
+        }
+
+        Region(long maxEntries, Duration ttl) {
+            this.maxEntries = maxEntries;
+            this.ttl = ttl;
+        }
+    }
+}
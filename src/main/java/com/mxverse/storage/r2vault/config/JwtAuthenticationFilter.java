@@ -1,6 +1,9 @@
 package com.mxverse.storage.r2vault.config;
 
-import com.mxverse.storage.r2vault.util.JwtUtils;
+import com.mxverse.storage.r2vault.service.auth.AccessTokenVerifier;
+import com.mxverse.storage.r2vault.service.auth.TokenRevocationService;
+import com.mxverse.storage.r2vault.service.auth.UserStatusCache;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,13 +13,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * Custom JWT filter that intercepts every request to validate the "Authorization" header.
@@ -24,8 +26,12 @@ import java.io.IOException;
  * If a valid JWT is found, it populates the Spring Security {@link SecurityContextHolder}
  * with the user's authentication details, allowing subsequent filters and controllers
  * to assume a state of "authenticated".
+ * <p>
+ * The principal is built from the verified token claims. The user's status is checked
+ * against {@link UserStatusCache} and revocation against {@link TokenRevocationService},
+ * so authenticated requests do not query the database.
  *
- * @see JwtUtils
+ * @see AccessTokenVerifier
  * @see SecurityConfig
  */
 @Component
@@ -33,8 +39,9 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final UserStatusCache userStatusCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
@@ -51,15 +58,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            username = jwtUtils.extractUsername(jwt);
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                if (jwtUtils.validateToken(jwt, userDetails.getUsername())) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            VerifiedToken token = accessTokenVerifier.verify(jwt);
+            username = token.username();
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                    && userStatusCache.get(username).accepts(token.tokenVersion())
+                    && !tokenRevocationService.isRevoked(token)) {
+                // The verified token is kept as credentials so logout can revoke it
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        username, token, Collections.emptyList());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
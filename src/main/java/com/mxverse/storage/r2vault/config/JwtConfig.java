@@ -1,5 +1,7 @@
 package com.mxverse.storage.r2vault.config;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
@@ -8,6 +10,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 /**
  * Configuration class for JWT security settings.
  * Properties are bound from the "jwt" prefix in application.yml.
@@ -36,4 +40,54 @@ public class JwtConfig {
      */
     @Min(value = 60000, message = "JWT refresh expiration must be at least 1 minute (60000 ms)")
     private long refreshExpiration;
+
+    /**
+     * How long a user's status (exists, enabled, token version) is cached for request
+     * authentication. Bounds how late a change made outside this service is noticed.
+     */
+    private Duration userStatusTtl = Duration.ofMinutes(5);
+
+    /**
+     * Maximum number of users whose status is cached.
+     */
+    @Min(value = 1, message = "JWT user status cache size must be at least 1")
+    private int userStatusCacheSize = 10_000;
+
+    /**
+     * Maximum number of verified access tokens remembered, keyed by token digest.
+     */
+    @Min(value = 1, message = "JWT verified token cache size must be at least 1")
+    private int verifiedTokenCacheSize = 10_000;
+
+    /**
+     * How long a verified refresh token is served from memory before the database is
+     * consulted again. Revocations on other instances can take this long to be seen.
+     */
+    private Duration refreshTokenCacheTtl = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of verified refresh tokens kept in memory.
+     */
+    @Min(value = 1, message = "Refresh token cache size must be at least 1")
+    private int refreshTokenCacheSize = 10_000;
+
+    /**
+     * Expired refresh tokens deleted per statement by the sweeper.
+     */
+    @Min(value = 1, message = "Refresh token sweep batch size must be at least 1")
+    private int refreshTokenSweepBatchSize = 1000;
+
+    /**
+     * Number of concurrently active revocations the in-memory revocation filter is sized for.
+     */
+    @Min(value = 1, message = "Revocation expected entries must be at least 1")
+    private long revocationExpectedEntries = 100_000;
+
+    /**
+     * Target false-positive rate of the revocation filter. A false positive costs one
+     * primary-key lookup.
+     */
+    @DecimalMin(value = "0.000001", message = "Revocation false-positive rate must be positive")
+    @DecimalMax(value = "0.1", message = "Revocation false-positive rate must be at most 0.1")
+    private double revocationFalsePositiveRate = 0.001;
 }
@@ -0,0 +1,43 @@
+package com.mxverse.storage.r2vault.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for password hashing.
+ * <p>
+ * These properties are bound from the {@code app.security.password-hashing} prefix and
+ * size the dedicated executor BCrypt runs on, see {@link BoundedPasswordEncoder}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+@Validated
+@Getter
+@Setter
+public class PasswordHashingProperties {
+
+    /**
+     * BCrypt work factor (log2 rounds) for newly encoded passwords. Existing hashes keep
+     * the strength they were created with.
+     */
+    @Min(value = 4, message = "BCrypt strength must be at least 4")
+    @Max(value = 31, message = "BCrypt strength must be at most 31")
+    private int bcryptStrength = 10;
+
+    /**
+     * Threads that run BCrypt. Caps the cores login bursts can take away from file traffic.
+     */
+    @Min(value = 1, message = "Password hashing threads must be at least 1")
+    private int threads = 2;
+
+    /**
+     * Hashing requests that may wait for a thread. Beyond this, requests are rejected with 503.
+     */
+    @Min(value = 0, message = "Password hashing queue capacity must not be negative")
+    private int queueCapacity = 64;
+}
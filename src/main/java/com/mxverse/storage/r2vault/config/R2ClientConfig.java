@@ -2,13 +2,18 @@ package com.mxverse.storage.r2vault.config;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Configuration class for the S3-compatible client.
@@ -24,9 +29,17 @@ import java.net.URI;
 public class R2ClientConfig {
 
     private final R2Properties r2Properties;
+    private final Environment environment;
+    private final R2HttpPoolMetrics r2HttpPoolMetrics;
+    private final R2RequestMetrics r2RequestMetrics;
 
     /**
      * Creates and configures the S3Client bean for R2 storage.
+     * <p>
+     * The Apache connection pool is sized and timed from {@code r2.http}, and pool
+     * usage is published through {@link R2HttpPoolMetrics}. Every request is timed and
+     * counted by {@link R2RequestMetrics}, and can be aborted through
+     * {@link AbortScopeHttpClient}.
      *
      * @return A configured S3Client instance.
      */
@@ -39,7 +52,19 @@ public class R2ClientConfig {
             return null;
         }
 
+        R2Properties.Http http = r2Properties.getHttp();
         return S3Client.builder()
+                .httpClientBuilder(AbortScopeHttpClient.wrap(ApacheHttpClient.builder()
+                        .maxConnections(http.getMaxConnections())
+                        .connectionAcquisitionTimeout(http.getConnectionAcquisitionTimeout())
+                        .connectionTimeout(http.getConnectionTimeout())
+                        .socketTimeout(http.getSocketTimeout())
+                        .tcpKeepAlive(http.isTcpKeepAlive())
+                        .connectionMaxIdleTime(http.getConnectionMaxIdleTime())
+                        .useIdleConnectionReaper(http.isUseIdleConnectionReaper())))
+                .overrideConfiguration(config -> config
+                        .addMetricPublisher(r2HttpPoolMetrics)
+                        .addExecutionInterceptor(r2RequestMetrics))
                 .endpointOverride(URI.create(r2Properties.getEndpoint()))
                 .credentialsProvider(StaticCredentialsProvider.create(
                         AwsBasicCredentials.create(r2Properties.getAccessKey(),
@@ -47,4 +72,22 @@ public class R2ClientConfig {
                 .region(Region.of("auto")) // R2 uses 'auto' or specific regions
                 .build();
     }
+
+    /**
+     * Executor used to run ranged GETs for parallel downloads.
+     * <p>
+     * With virtual threads enabled every task gets its own virtual thread, since the
+     * per-download read-ahead window already bounds how many fetches run at once.
+     *
+     * @return A virtual-thread executor, or a fixed-size executor sized by
+     * {@code r2.download.executor-threads}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService r2TransferExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("r2-transfer-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(r2Properties.getDownload().getExecutorThreads(),
+                Thread.ofPlatform().name("r2-transfer-", 0).daemon(true).factory());
+    }
 }
@@ -0,0 +1,93 @@
+package com.mxverse.storage.r2vault.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SDK {@link MetricPublisher} that exposes the R2 HTTP connection pool state to Micrometer.
+ * <p>
+ * Every SDK call reports the pool's leased, pending and available connections at the
+ * moment it acquired its own connection. The latest observation is published as the
+ * gauges {@code r2.http.pool.leased}, {@code r2.http.pool.pending},
+ * {@code r2.http.pool.available} and {@code r2.http.pool.max}. The time spent waiting
+ * for a lease is recorded by the {@code r2.http.pool.acquire} timer. All meters are
+ * tagged with the HTTP client name ({@code Apache}).
+ */
+@Component
+@RequiredArgsConstructor
+public class R2HttpPoolMetrics implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PoolState> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        record(metricCollection);
+    }
+
+    @Override
+    public void close() {
+        // Meters are owned by the registry
+    }
+
+    private void record(MetricCollection collection) {
+        collection.metricValues(HttpMetric.HTTP_CLIENT_NAME).stream().findFirst()
+                .ifPresent(clientName -> pools.computeIfAbsent(clientName, this::register).update(collection));
+        collection.children().forEach(this::record);
+    }
+
+    private PoolState register(String clientName) {
+        PoolState state = new PoolState(Timer.builder("r2.http.pool.acquire")
+                .description("Time spent waiting for an R2 HTTP connection")
+                .tag("client", clientName)
+                .register(meterRegistry));
+        gauge("r2.http.pool.leased", "Connections currently leased", clientName, state.leased);
+        gauge("r2.http.pool.pending", "Requests waiting for a connection", clientName, state.pending);
+        gauge("r2.http.pool.available", "Idle connections ready for reuse", clientName, state.available);
+        gauge("r2.http.pool.max", "Configured maximum connections", clientName, state.max);
+        return state;
+    }
+
+    private void gauge(String name, String description, String clientName, AtomicInteger value) {
+        Gauge.builder(name, value, AtomicInteger::get)
+                .description(description)
+                .tag("client", clientName)
+                .register(meterRegistry);
+    }
+
+    private static final class PoolState {
+        private final AtomicInteger leased = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger available = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+        private final Timer acquireTimer;
+
+        private PoolState(Timer acquireTimer) {
+            this.acquireTimer = acquireTimer;
+        }
+
+        private void update(MetricCollection collection) {
+            set(collection, HttpMetric.LEASED_CONCURRENCY, leased);
+            set(collection, HttpMetric.PENDING_CONCURRENCY_ACQUIRES, pending);
+            set(collection, HttpMetric.AVAILABLE_CONCURRENCY, available);
+            set(collection, HttpMetric.MAX_CONCURRENCY, max);
+            collection.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION).stream().findFirst()
+                    .ifPresent(acquireTimer::record);
+        }
+
+        private static void set(MetricCollection collection, SdkMetric<Integer> metric, AtomicInteger target) {
+            collection.metricValues(metric).stream().findFirst().ifPresent(target::set);
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.mxverse.storage.r2vault.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 /**
  * Configuration properties for Cloudflare R2 storage.
  * <p>
@@ -43,4 +51,283 @@ public class R2Properties {
      */
     @NotBlank(message = "R2 secret key must not be blank (set R2_SECRET_KEY environment variable)")
     private String secretKey;
+
+    /**
+     * Connection pool and timeout settings for the R2 HTTP client.
+     */
+    @Valid
+    private Http http = new Http();
+
+    /**
+     * Adaptive concurrency limit and circuit breaker around R2 calls.
+     */
+    @Valid
+    private Guard guard = new Guard();
+
+    /**
+     * Tuning for the download path.
+     */
+    @Valid
+    private Download download = new Download();
+
+    /**
+     * Hedged GETs for the download path.
+     */
+    @Valid
+    private Hedging hedging = new Hedging();
+
+    /**
+     * Sharing of identical concurrent GETs in the download path.
+     */
+    @Valid
+    private Coalescing coalescing = new Coalescing();
+
+    /**
+     * Dispatch of the deferred deletes and aborts recorded in the outbox.
+     */
+    @Valid
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Connection pool and socket settings of the R2 HTTP client.
+     */
+    @Getter
+    @Setter
+    public static class Http {
+
+        /**
+         * Maximum number of open connections to R2. Parallel part uploads and ranged
+         * downloads each hold one connection for the duration of the transfer.
+         */
+        @Min(value = 1, message = "R2 max connections must be at least 1")
+        private int maxConnections = 200;
+
+        /**
+         * How long a request waits for a pooled connection before failing.
+         */
+        private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Timeout for establishing a new TCP/TLS connection.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Maximum time between two reads (or writes) on an open connection.
+         */
+        private Duration socketTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Whether TCP keep-alive probes are sent on idle connections.
+         */
+        private boolean tcpKeepAlive = true;
+
+        /**
+         * Idle connections older than this are closed by the reaper.
+         */
+        private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+
+        /**
+         * Whether a background reaper closes connections idle longer than
+         * {@link #connectionMaxIdleTime}.
+         */
+        private boolean useIdleConnectionReaper = true;
+    }
+
+    /**
+     * Settings for the shared guard that sheds R2 load when R2 slows down or throttles.
+     */
+    @Getter
+    @Setter
+    public static class Guard {
+
+        /**
+         * Whether R2 calls are subject to the concurrency limit and circuit breaker.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Concurrency limit used at startup.
+         */
+        @Min(value = 1, message = "R2 guard initial limit must be at least 1")
+        private int initialLimit = 64;
+
+        /**
+         * Lower bound the limit never shrinks below.
+         */
+        @Min(value = 1, message = "R2 guard minimum limit must be at least 1")
+        private int minLimit = 8;
+
+        /**
+         * Upper bound the limit never grows beyond. Should not exceed {@code r2.http.max-connections}.
+         */
+        @Min(value = 1, message = "R2 guard maximum limit must be at least 1")
+        private int maxLimit = 200;
+
+        /**
+         * Short-term latency above {@code tolerance} times the long-term latency of the same
+         * operation is treated as congestion.
+         */
+        private double latencyTolerance = 2.0;
+
+        /**
+         * Factor the limit is multiplied by on congestion or throttling.
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Consecutive failed calls (throttling, 5xx or network errors) that open the circuit.
+         */
+        @Min(value = 1, message = "R2 guard failure threshold must be at least 1")
+        private int failureThreshold = 20;
+
+        /**
+         * How long the circuit stays open before a trial call is let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Settings for splitting large downloads into concurrent ranged GETs.
+     */
+    @Getter
+    @Setter
+    public static class Download {
+
+        /**
+         * Whether full-object downloads are fetched as several concurrent ranged GETs.
+         * Objects no larger than one chunk are still served by a single request.
+         */
+        private boolean parallelEnabled = false;
+
+        /**
+         * Size of each ranged GET issued for a parallel download.
+         */
+        private DataSize chunkSize = DataSize.ofMegabytes(8);
+
+        /**
+         * Maximum number of chunks fetched ahead of the client for a single download.
+         * Bounds buffered data to {@code (concurrency + 1) * chunkSize} bytes per download:
+         * the chunks fetched ahead plus the one the client is reading.
+         */
+        @Min(value = 1, message = "Parallel download concurrency must be at least 1")
+        private int concurrency = 4;
+
+        /**
+         * Number of threads shared by all downloads for fetching chunks.
+         */
+        @Min(value = 1, message = "Transfer executor must have at least 1 thread")
+        private int executorThreads = 32;
+    }
+
+    /**
+     * Settings for hedging slow download GETs with a duplicate request.
+     */
+    @Getter
+    @Setter
+    public static class Hedging {
+
+        /**
+         * Whether a download GET that is slower than {@link #percentile} is duplicated.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Latency percentile of recent GETs after which the duplicate is sent.
+         */
+        @DecimalMin(value = "0.5", message = "Hedging percentile must be at least 0.5")
+        @DecimalMax(value = "0.999", message = "Hedging percentile must be below 1")
+        private double percentile = 0.95;
+
+        /**
+         * Lower bound for the hedge delay, so a fast period does not hedge every request.
+         */
+        private Duration minDelay = Duration.ofMillis(50);
+
+        /**
+         * Number of recent GET latencies the percentile is computed over.
+         */
+        @Min(value = 100, message = "Hedging sample window must be at least 100")
+        private int sampleWindow = 1000;
+
+        /**
+         * Hedges allowed per primary GET. 0.05 caps extra R2 load at 5%.
+         */
+        @DecimalMin(value = "0.0", message = "Hedging budget ratio must not be negative")
+        private double budgetRatio = 0.05;
+
+        /**
+         * Hedges that may be issued back to back when the budget is full.
+         */
+        @Min(value = 1, message = "Hedging budget burst must be at least 1")
+        private int budgetBurst = 10;
+
+        /**
+         * Threads that send hedges. Primaries run on the calling thread, so this only
+         * needs to cover the hedges in flight at once.
+         */
+        @Min(value = 1, message = "Hedging executor must have at least 1 thread")
+        private int executorThreads = 4;
+    }
+
+    /**
+     * Settings for sharing one upstream GET between concurrent downloads of the same
+     * key and range.
+     */
+    @Getter
+    @Setter
+    public static class Coalescing {
+
+        /**
+         * Whether concurrent downloads of the same key and range share one GET.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Ring buffer per shared GET, and how late a request can still join. A reader that
+         * falls further than this behind the fastest one leaves the shared GET and opens
+         * its own ranged GET for the rest, so each lagging client costs one extra GET.
+         */
+        private DataSize bufferSize = DataSize.ofMegabytes(4);
+    }
+
+    /**
+     * Settings for the dispatcher that carries out the R2 side effects recorded in the
+     * outbox table.
+     */
+    @Getter
+    @Setter
+    public static class Outbox {
+
+        /**
+         * Events claimed per round. Object deletes of a round are sent as one
+         * {@code DeleteObjects} request.
+         */
+        @Min(value = 1, message = "Outbox batch size must be at least 1")
+        @Max(value = 1000, message = "Outbox batch size must not exceed the DeleteObjects limit of 1000")
+        private int batchSize = 100;
+
+        /**
+         * How long a claimed event is hidden from other dispatchers. An instance that dies
+         * mid-round leaves its events to be picked up again after this.
+         */
+        private Duration claimLease = Duration.ofMinutes(5);
+
+        /**
+         * Delay before the first retry; doubled for every further failure.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(10);
+
+        /**
+         * Upper bound for the retry delay.
+         */
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * Failures after which an event is no longer retried and left in the table for
+         * inspection.
+         */
+        @Min(value = 1, message = "Outbox max attempts must be at least 1")
+        private int maxAttempts = 10;
+    }
 }
@@ -0,0 +1,133 @@
+package com.mxverse.storage.r2vault.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SDK {@link ExecutionInterceptor} that records every R2 request in Micrometer.
+ * <p>
+ * Unlike {@code r2.guard.calls}, which times a call as the application sees it, these
+ * meters are taken inside the SDK and include its retries:
+ * <ul>
+ *     <li>{@code r2.client.requests}: latency of each API call including retries, tagged
+ *     with the operation, the outcome, the final HTTP status and the S3 error code.</li>
+ *     <li>{@code r2.client.bytes.sent}: request body bytes per attempt, so retried
+ *     uploads count every time they are sent.</li>
+ *     <li>{@code r2.client.bytes.received}: response body bytes announced by R2. A
+ *     download closed early reads less than this.</li>
+ *     <li>{@code r2.client.retries}: attempts beyond the first.</li>
+ *     <li>{@code r2.client.throttled}: attempts answered with 429 or 503, including
+ *     those the SDK retried successfully.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class R2RequestMetrics implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("R2MetricsStartNanos");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("R2MetricsAttempts");
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        executionAttributes.putAttribute(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+
+        Optional<Long> bodyLength = context.requestBody().isPresent()
+                ? context.requestBody().get().optionalContentLength()
+                : context.asyncRequestBody().flatMap(AsyncRequestBody::contentLength);
+        bodyLength.filter(length -> length > 0)
+                .ifPresent(length -> counter("r2.client.bytes.sent", "Request body bytes sent to R2",
+                        operation(executionAttributes)).increment(length));
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        int status = context.httpResponse().statusCode();
+        if (status == 429 || status == 503) {
+            counter("r2.client.throttled", "R2 attempts answered with 429 or 503",
+                    operation(executionAttributes)).increment();
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        SdkHttpResponse response = context.httpResponse();
+        response.firstMatchingHeader("Content-Length")
+                .map(Long::parseLong)
+                .filter(length -> length > 0)
+                .ifPresent(length -> counter("r2.client.bytes.received", "Response body bytes announced by R2",
+                        operation(executionAttributes)).increment(length));
+        finish(executionAttributes, "success", String.valueOf(response.statusCode()), "none");
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Throwable exception = context.exception();
+        if (exception instanceof SdkServiceException serviceException) {
+            int status = serviceException.statusCode();
+            String errorCode = exception instanceof AwsServiceException awsException
+                    && awsException.awsErrorDetails() != null && awsException.awsErrorDetails().errorCode() != null
+                    ? awsException.awsErrorDetails().errorCode()
+                    : "unknown";
+            finish(executionAttributes, status >= 500 ? "server_error" : "client_error", String.valueOf(status), errorCode);
+        } else {
+            // No response: connection, timeout or request preparation failures
+            finish(executionAttributes, "io_error", "none", exception.getClass().getSimpleName());
+        }
+    }
+
+    private void finish(ExecutionAttributes executionAttributes, String outcome, String status, String errorCode) {
+        String operation = operation(executionAttributes);
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        if (start != null) {
+            Timer.builder("r2.client.requests")
+                    .description("R2 API calls including SDK retries")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .tag("status", status)
+                    .tag("error_code", errorCode)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        if (attempts != null && attempts > 1) {
+            counter("r2.client.retries", "R2 attempts beyond the first", operation).increment(attempts - 1);
+        }
+    }
+
+    private Counter counter(String name, String description, String operation) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static String operation(ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operation != null ? operation : "unknown";
+    }
+}
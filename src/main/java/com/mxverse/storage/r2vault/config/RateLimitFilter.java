@@ -0,0 +1,128 @@
+package com.mxverse.storage.r2vault.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mxverse.storage.r2vault.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiting per endpoint group, per user and per client IP.
+ * <p>
+ * Runs after {@link JwtAuthenticationFilter} so authenticated requests can be limited by
+ * user. Each group from {@link RateLimitProperties} has its own buckets; buckets are
+ * created on first use and dropped when idle. A rejected request gets 429 with a
+ * {@code Retry-After} header and is counted in {@code http.rate_limit.rejections}.
+ * <p>
+ * The per-IP key is {@link HttpServletRequest#getRemoteAddr()}. With
+ * {@code server.forward-headers-strategy: native} Tomcat replaces it with the
+ * {@code X-Forwarded-For} client only for requests from {@code server.tomcat.remoteip.internal-proxies},
+ * so clients behind a trusted proxy get their own buckets and nobody else can pick one by header.
+ *
+ * @see SecurityConfig
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<EndpointGroup> groups;
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.groups = properties.getGroups().entrySet().stream()
+                .map(entry -> new EndpointGroup(entry.getKey(),
+                        entry.getValue().getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                        entry.getValue()))
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        EndpointGroup group = properties.isEnabled() ? match(request) : null;
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitProperties.Group settings = group.settings();
+        long waitNanos = 0;
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (settings.getPerUser() != null && authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            waitNanos = acquire(group, "user", authentication.getName(), settings.getPerUser());
+        }
+        if (waitNanos == 0 && settings.getPerIp() != null) {
+            waitNanos = acquire(group, "ip", request.getRemoteAddr(), settings.getPerIp());
+        }
+
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            log.debug("Rate limit exceeded for group {} from {}", group.name(), request.getRemoteAddr());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, please retry later");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private long acquire(EndpointGroup group, String scope, String key, RateLimitProperties.Limit limit) {
+        TokenBucket bucket = buckets.get(group.name() + '|' + scope + '|' + key,
+                k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond()));
+        long waitNanos = bucket.tryAcquire(1);
+        if (waitNanos > 0) {
+            Counter.builder("http.rate_limit.rejections")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("group", group.name())
+                    .tag("scope", scope)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return waitNanos;
+    }
+
+    private EndpointGroup match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (EndpointGroup group : groups) {
+            for (PathPattern pattern : group.patterns()) {
+                if (pattern.matches(path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private record EndpointGroup(String name, List<PathPattern> patterns, RateLimitProperties.Group settings) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.mxverse.storage.r2vault.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for request rate and bandwidth limits.
+ * <p>
+ * These properties are bound from the {@code app.rate-limit} prefix. Requests are matched
+ * to endpoint groups by path; each group can limit requests per authenticated user and
+ * per client IP.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Validated
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    /**
+     * Whether request rate and bandwidth limits are enforced.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Endpoint groups by name. A request is counted against the first group with a
+     * matching path pattern; requests matching no group are not limited.
+     */
+    @Valid
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Per-user transfer rate limits.
+     */
+    @Valid
+    private Bandwidth bandwidth = new Bandwidth();
+
+    /**
+     * Upper bound on tracked buckets per scope; least recently used ones are dropped.
+     */
+    @Min(value = 1, message = "Rate limit max tracked keys must be at least 1")
+    private int maxTrackedKeys = 100_000;
+
+    /**
+     * A set of endpoints sharing the same limits.
+     */
+    @Getter
+    @Setter
+    public static class Group {
+
+        /**
+         * Path patterns of the endpoints in this group, e.g. {@code /api/files/upload/**}.
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * Limit per authenticated user, or none if unset.
+         */
+        @Valid
+        private Limit perUser;
+
+        /**
+         * Limit per client IP address, or none if unset.
+         */
+        @Valid
+        private Limit perIp;
+    }
+
+    /**
+     * Token bucket settings.
+     */
+    @Getter
+    @Setter
+    public static class Limit {
+
+        /**
+         * Largest burst of requests allowed at once.
+         */
+        @Min(value = 1, message = "Rate limit capacity must be at least 1")
+        private long capacity = 10;
+
+        /**
+         * Sustained requests per second.
+         */
+        @DecimalMin(value = "0.001", message = "Rate limit refill rate must be positive")
+        private double refillPerSecond = 1;
+    }
+
+    /**
+     * Byte-rate limits per user. Zero means unlimited.
+     */
+    @Getter
+    @Setter
+    public static class Bandwidth {
+
+        /**
+         * Maximum upload rate per user, across all of the user's uploads.
+         */
+        private DataSize uploadPerSecond = DataSize.ofBytes(0);
+
+        /**
+         * Maximum download rate per user, across all of the user's downloads.
+         */
+        private DataSize downloadPerSecond = DataSize.ofBytes(0);
+    }
+}
@@ -0,0 +1,152 @@
+package com.mxverse.storage.r2vault.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decides when a read-only transaction must still go to the primary.
+ * <p>
+ * Replicas apply the primary's changes with a delay. Registered as a transaction
+ * listener, this notices read-write transactions that commit within a request and keeps
+ * that client's reads on the primary for {@code app.datasource.replicas.read-your-writes-window}:
+ * <ul>
+ *     <li>the response carries a {@value #COOKIE_NAME} cookie holding the time the window
+ *     ends, so the client's next requests are pinned on whichever instance serves them;</li>
+ *     <li>the user is also remembered on this instance, for clients that drop cookies.</li>
+ * </ul>
+ * Reads that must never be stale can be pinned with {@link #onPrimary(Supplier)}.
+ */
+@Component
+public class ReadYourWritesGuard implements TransactionExecutionListener {
+
+    private static final String COOKIE_NAME = "r2v_primary_until";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final Duration window;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesGuard(DataSourceProperties dataSourceProperties) {
+        this.window = dataSourceProperties.getReplicas().getReadYourWritesWindow();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && !transaction.isReadOnly()) {
+            String username = currentUsername();
+            if (username != null) {
+                recentWriters.put(username, Boolean.TRUE);
+            }
+            pinClient();
+        }
+    }
+
+    /**
+     * Runs a read against the primary regardless of the transaction's read-only flag.
+     *
+     * @param read The read, opening its own transaction.
+     * @return The read's result.
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        if (Boolean.TRUE.equals(PINNED.get())) {
+            return read.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * @return {@code true} if the current read must not be served by a replica.
+     */
+    boolean requiresPrimary() {
+        if (Boolean.TRUE.equals(PINNED.get())) {
+            return true;
+        }
+        String username = currentUsername();
+        if (username != null && recentWriters.getIfPresent(username) != null) {
+            return true;
+        }
+        return clientPinned();
+    }
+
+    private void pinClient() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (response == null || response.isCommitted()
+                || attributes.getAttribute(COOKIE_NAME, RequestAttributes.SCOPE_REQUEST) != null) {
+            return;
+        }
+        // One cookie per request, however many transactions it commits
+        attributes.setAttribute(COOKIE_NAME, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME,
+                        String.valueOf(System.currentTimeMillis() + window.toMillis()))
+                .path("/")
+                .maxAge(window)
+                .httpOnly(true)
+                .secure(attributes.getRequest().isSecure())
+                .sameSite("Strict")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    /**
+     * The cookie is client-controlled; a value beyond one window from now is ignored, so
+     * the most a client can do is keep its own reads on the primary.
+     */
+    private boolean clientPinned() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    return until > now && until - now <= window.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
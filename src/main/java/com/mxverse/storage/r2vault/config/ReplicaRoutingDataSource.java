@@ -0,0 +1,153 @@
+package com.mxverse.storage.r2vault.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to healthy read replicas and everything else to the primary.
+ * <p>
+ * Physical connections are fetched lazily, after the transaction manager has marked the
+ * connection read-only, so the read-only flag of {@code @Transactional(readOnly = true)}
+ * (and of Spring Data's own finder transactions) decides the target. Read-only
+ * connections are spread round-robin over the replicas that passed their last health
+ * check; when none did, or {@link ReadYourWritesGuard} asks for it, they fall back to
+ * the primary.
+ * <p>
+ * A background check validates each replica every
+ * {@code app.datasource.replicas.health-check-interval} and, on PostgreSQL, takes it out
+ * of rotation while its replay lag exceeds {@code max-lag}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+            END""";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                    DataSourceProperties.Replicas settings,
+                                    ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.maxLag = settings.getMaxLag();
+        setReadOnlyDataSource(new ReadOnlyRouter());
+
+        Gauge.builder("db.replicas.healthy", replicas, r -> r.stream().filter(replica -> replica.healthy).count())
+                .description("Read replicas currently serving read-only transactions")
+                .register(meterRegistry);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "db-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = settings.getHealthCheckInterval().toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.pool.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS) && withinLag(connection);
+            } catch (SQLException e) {
+                log.debug("Health check of replica {} failed: {}", replica.pool.getPoolName(), e.getMessage());
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.warn("Replica {} is now {}", replica.pool.getPoolName(), healthy ? "in rotation" : "out of rotation");
+                replica.healthy = healthy;
+            }
+        }
+    }
+
+    private boolean withinLag(Connection connection) throws SQLException {
+        if (!connection.getMetaData().getURL().startsWith("jdbc:postgresql:")) {
+            return true;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet lag = statement.executeQuery(POSTGRES_LAG_QUERY)) {
+            return lag.next() && Duration.ofMillis((long) (lag.getDouble(1) * 1000)).compareTo(maxLag) <= 0;
+        }
+    }
+
+    /**
+     * Stops the health checks and closes the primary and replica pools.
+     */
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        // Out of rotation until the first check passes
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    /**
+     * The data source behind read-only connections.
+     */
+    private final class ReadOnlyRouter extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return target().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return target().getConnection(username, password);
+        }
+
+        private HikariDataSource target() {
+            if (readYourWritesGuard.requiresPrimary()) {
+                return primary;
+            }
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (replica.healthy) {
+                    return replica.pool;
+                }
+            }
+            return primary;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.mxverse.storage.r2vault.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -34,56 +36,75 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsService userDetailsService;
 
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     /**
      * Configures the security filter chain.
      * <p>
-     * Defines endpoint permissions (e.g., permitting "/api/auth/**"),
-     * sets the session policy to stateless, and integrates the {@link JwtAuthenticationFilter}.
+     * Defines endpoint permissions (e.g., permitting "/api/auth/**" and the {@code /livez}
+     * and {@code /readyz} health probes),
+     * sets the session policy to stateless, and integrates the {@link JwtAuthenticationFilter}
+     * followed by the {@link RateLimitFilter}.
+     * <p>
+     * Actuator endpoints, including the Prometheus scrape, are served only on the
+     * management port, which listens on an internal address; requests there need no token.
      *
-     * @param http The {@link HttpSecurity} object to configure.
+     * @param http                   The {@link HttpSecurity} object to configure.
+     * @param authenticationProvider The provider verifying username and password.
      * @return The built {@link SecurityFilterChain}.
      * @throws Exception if configuration fails.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider)
+            throws Exception {
         http
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/livez", "/readyz").permitAll()
+                        .requestMatchers(request -> request.getLocalPort() == managementPort).permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint((request, response, authException) -> response.sendError(HttpServletResponse.SC_UNAUTHORIZED,
                                 authException.getMessage())))
-                .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .authenticationProvider(authenticationProvider)
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
     /**
-     * Standard implementation of {@link PasswordEncoder} using BCrypt hashing.
+     * BCrypt {@link PasswordEncoder} running on a dedicated bounded executor, so hashing
+     * cannot take more than its share of CPU from file traffic.
      *
-     * @return A {@link BCryptPasswordEncoder} instance.
+     * @param properties    Work factor and executor sizing.
+     * @param meterRegistry Registry for the executor metrics.
+     * @return A {@link BoundedPasswordEncoder} around a {@link BCryptPasswordEncoder}.
      */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(properties.getBcryptStrength()),
+                properties, meterRegistry);
     }
 
     /**
      * Configures the {@link AuthenticationProvider} with user details and password encoder.
      *
+     * @param passwordEncoder The password encoder.
      * @return A {@link DaoAuthenticationProvider} instance.
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -0,0 +1,41 @@
+package com.mxverse.storage.r2vault.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for archiving finished upload sessions.
+ * <p>
+ * These properties are bound from the {@code app.uploads.archive} prefix. Completed and
+ * aborted sessions stay in {@code upload_sessions} for the retention period, so clients
+ * can still query their status, and are then moved to {@code upload_sessions_archive}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.uploads.archive")
+@Validated
+@Getter
+@Setter
+public class UploadArchiveProperties {
+
+    /**
+     * Whether the archive job runs. It uses PostgreSQL-specific SQL.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a finished session stays in the hot table.
+     */
+    private Duration retention = Duration.ofDays(1);
+
+    /**
+     * Sessions moved per transaction.
+     */
+    @Min(value = 1, message = "Archive batch size must be at least 1")
+    private int batchSize = 500;
+}
@@ -0,0 +1,96 @@
+package com.mxverse.storage.r2vault.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread.
+ * <p>
+ * Active only when {@code spring.threads.virtual.enabled} is set. A virtual thread that
+ * blocks inside a {@code synchronized} block or native frame (for example in the AWS SDK,
+ * the Apache HTTP client or the JDBC driver) keeps its carrier busy, which silently caps
+ * concurrency at the carrier pool size. This monitor subscribes to the JFR
+ * {@code jdk.VirtualThreadPinned} event and logs each distinct pinning site once at WARN
+ * with its stack, then counts further occurrences at DEBUG.
+ * <p>
+ * A pinning site is the first frame outside the JDK, since the top frames are almost
+ * always the same {@code java.util.concurrent} or socket internals.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 64; // JFR's default stack depth
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    @Value("${app.virtual-threads.pinning-threshold:20ms}")
+    private Duration threshold;
+
+    private final Map<String, AtomicLong> pinningSites = new ConcurrentHashMap<>();
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::report);
+        recordingStream.startAsync();
+        log.info("Virtual threads enabled. Reporting carrier pinning longer than {}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of()
+                : event.getStackTrace().getFrames().stream().limit(MAX_FRAMES).toList();
+        String site = frames.stream()
+                .filter(frame -> !isJdkFrame(frame))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::formatFrame)
+                .orElse("<no stack trace>");
+
+        long previous = pinningSites.computeIfAbsent(site, k -> new AtomicLong()).getAndIncrement();
+        if (previous == 0) {
+            String stack = frames.stream()
+                    .map(VirtualThreadPinningMonitor::formatFrame)
+                    .collect(Collectors.joining("\n\tat "));
+            log.warn("Virtual thread pinned for {} ms at {}:\n\tat {}", event.getDuration().toMillis(), site, stack);
+        } else {
+            log.debug("Virtual thread pinned for {} ms at {} ({} occurrences)",
+                    event.getDuration().toMillis(), site, previous + 1);
+        }
+    }
+
+    private static boolean isJdkFrame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return JDK_PACKAGES.stream().anyMatch(type::startsWith);
+    }
+
+    private static String formatFrame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
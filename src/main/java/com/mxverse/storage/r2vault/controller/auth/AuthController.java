@@ -9,11 +9,13 @@ import com.mxverse.storage.r2vault.dto.auth.TokenRefreshRequest;
 import com.mxverse.storage.r2vault.dto.auth.TokenResponse;
 import com.mxverse.storage.r2vault.exception.DeviceLimitExceededException;
 import com.mxverse.storage.r2vault.service.auth.AuthService;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
@@ -86,16 +88,17 @@ public class AuthController {
     }
 
     /**
-     * Logs out the user by deleting their refresh token.
+     * Logs out the user by deleting their refresh token and revoking the access token.
      * <p>
      * Prevents future token refreshes for the current session.
      *
-     * @param principal The authenticated user (extracted from current access token).
+     * @param authentication The authenticated user (extracted from current access token).
      * @return Success message.
      */
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<String>> logout(Principal principal) {
-        authService.logout(principal.getName());
+    public ResponseEntity<ApiResponse<String>> logout(Authentication authentication) {
+        VerifiedToken accessToken = authentication.getCredentials() instanceof VerifiedToken token ? token : null;
+        authService.logout(authentication.getName(), accessToken);
         return ResponseEntity
                 .ok(ApiResponse.success("Log out successful!", "Log out successful!",
                         HttpStatus.OK.value()));
@@ -157,7 +160,7 @@ public class AuthController {
     @ExceptionHandler(DeviceLimitExceededException.class)
     public ResponseEntity<ApiResponse<List<DeviceDto>>> handleDeviceLimit(DeviceLimitExceededException ex) {
         List<DeviceDto> devices = ex.getActiveDevices().stream()
-                .map(d -> new DeviceDto(d.getId(), d.getName(), d.getPlatform(),
+                .map(d -> new DeviceDto(d.getId().toString(), d.getName(), d.getPlatform(),
                         d.getLastActiveAt().toString()))
                 .collect(Collectors.toList());
 
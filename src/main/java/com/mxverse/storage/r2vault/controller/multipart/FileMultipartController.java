@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.security.Principal;
+import java.util.UUID;
 
 /**
  * Controller for handling multipart file uploads.
@@ -70,7 +71,7 @@ public class FileMultipartController {
      */
     @PostMapping("/part")
     public ResponseEntity<ApiResponse<String>> uploadPart(
-            @RequestParam("sessionId") String sessionId,
+            @RequestParam("sessionId") UUID sessionId,
             @RequestParam("partNumber") int partNumber,
             @RequestParam("file") MultipartFile file,
             Principal principal) {
@@ -88,7 +89,7 @@ public class FileMultipartController {
      */
     @GetMapping("/status/{sessionId}")
     public ResponseEntity<ApiResponse<UploadStatusResponse>> getStatus(
-            @PathVariable String sessionId,
+            @PathVariable UUID sessionId,
             Principal principal) {
         UploadStatusResponse response = statusService.getUploadStatus(principal.getName(), sessionId);
         return ResponseEntity.ok(ApiResponse.success(response, "Upload status retrieved", HttpStatus.OK.value()));
@@ -103,7 +104,7 @@ public class FileMultipartController {
      */
     @PostMapping("/complete/{sessionId}")
     public ResponseEntity<ApiResponse<Void>> complete(
-            @PathVariable String sessionId,
+            @PathVariable UUID sessionId,
             Principal principal) {
         completionService.completeUpload(principal.getName(), sessionId);
         return ResponseEntity.ok(ApiResponse.success(null, "Upload completed successfully", HttpStatus.OK.value()));
@@ -118,7 +119,7 @@ public class FileMultipartController {
      */
     @PostMapping("/abort/{sessionId}")
     public ResponseEntity<ApiResponse<Void>> abort(
-            @PathVariable String sessionId,
+            @PathVariable UUID sessionId,
             Principal principal) {
         abortService.abortUpload(principal.getName(), sessionId);
         return ResponseEntity.ok(ApiResponse.success(null, "Upload aborted", HttpStatus.OK.value()));
@@ -1,5 +1,7 @@
 package com.mxverse.storage.r2vault.dto.multipart;
 
+import java.util.UUID;
+
 /**
  * Response DTO returning session details for a started multipart upload.
  * <p>
@@ -13,7 +15,7 @@ package com.mxverse.storage.r2vault.dto.multipart;
  */
 public record UploadSessionResponse(
         String uploadId,
-        String sessionId,
+        UUID sessionId,
         long partSize,
         int totalParts
 ) {
@@ -3,6 +3,7 @@ package com.mxverse.storage.r2vault.dto.multipart;
 import com.mxverse.storage.r2vault.entity.UploadStatus;
 
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Response DTO providing the current status of a multipart upload.
@@ -19,7 +20,7 @@ import java.util.List;
  */
 public record UploadStatusResponse(
         String uploadId,
-        String sessionId,
+        UUID sessionId,
         UploadStatus status,
         int totalParts,
         long totalSize,
@@ -2,6 +2,8 @@ package com.mxverse.storage.r2vault.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a user's master account key (AK) metadata.
@@ -12,6 +14,8 @@ import lombok.*;
  */
 @Entity
 @Table(name = "account_keys")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "account-keys")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -3,11 +3,14 @@ package com.mxverse.storage.r2vault.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Entity representing a file stored in the R2 bucket.
@@ -16,15 +19,17 @@ import java.util.List;
  */
 @Entity
 @Table(name = "file_records")
-@Data
+@Getter
+@Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class FileRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -61,4 +66,25 @@ public class FileRecord {
     protected void onCreate() {
         createdAt = Instant.now();
     }
+
+    /**
+     * Entities are equal when they share an id; unsaved instances are only equal to themselves.
+     * Associations are never touched, so comparing does not initialize lazy proxies.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FileRecord other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // Constant per class so the hash does not change when the id is assigned on persist
+        return FileRecord.class.hashCode();
+    }
 }
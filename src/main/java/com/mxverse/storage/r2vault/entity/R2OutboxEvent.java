@@ -0,0 +1,70 @@
+package com.mxverse.storage.r2vault.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing an R2 side effect that is still to be carried out.
+ * <p>
+ * Rows are written in the same transaction as the database change they belong to, so the
+ * side effect happens if and only if that change commits. The dispatcher deletes a row once
+ * R2 has accepted the call and otherwise retries it at {@link #nextAttemptAt}.
+ */
+@Entity
+@Table(name = "r2_outbox")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class R2OutboxEvent {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private R2OutboxEventType type;
+
+    @Column(name = "s3_key", nullable = false, columnDefinition = "TEXT")
+    private String s3Key;
+
+    /**
+     * The multipart upload to abort; only set for {@link R2OutboxEventType#ABORT_MULTIPART_UPLOAD}.
+     */
+    @Column(name = "upload_id", columnDefinition = "TEXT")
+    private String uploadId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * The event is due from this instant; a claimed event is pushed out by the claim lease.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.mxverse.storage.r2vault.entity;
+
+/**
+ * Side effects on R2 that are recorded in the outbox and carried out by the dispatcher.
+ */
+public enum R2OutboxEventType {
+    /**
+     * Delete the object at the event's key.
+     */
+    DELETE_OBJECT,
+    /**
+     * Abort the multipart upload with the event's upload id, discarding its parts.
+     */
+    ABORT_MULTIPART_UPLOAD
+}
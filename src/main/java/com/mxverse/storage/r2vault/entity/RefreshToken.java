@@ -4,15 +4,17 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.Instant;
+import java.util.UUID;
 
 /**
  * Entity representing a refresh token for cross-session persistent authentication.
  * <p>
  * Refresh tokens allow users to maintain their session across app restarts
  * without re-authenticating, until the token itself expires or is revoked.
+ * Only a fixed-length digest of the token is persisted, on a unique index.
  */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_token_digests")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,13 +26,22 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", unique = true)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    /**
+     * SHA-256 of the token handed to the client. The token itself is never stored.
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
 
     @Column(nullable = false)
     private Instant expiryDate;
+
+    /**
+     * The {@code Device} the token was issued to, or {@code null} if the login named none.
+     */
+    @Column(name = "device_id")
+    private UUID deviceId;
 }
@@ -0,0 +1,36 @@
+package com.mxverse.storage.r2vault.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entity representing a revoked access token or a revoked device.
+ * <p>
+ * The id is either a token id ({@code jti} claim), revoking that single token, or
+ * {@code device:<id>}, revoking every token of that device issued before
+ * {@link #revokedAt}. Rows are only needed until the last affected token has expired.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    /**
+     * After this instant no token affected by the revocation can still be valid.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
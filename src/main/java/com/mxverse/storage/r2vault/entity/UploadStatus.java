@@ -1,5 +1,8 @@
 package com.mxverse.storage.r2vault.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enumeration of possible states for a multipart upload session.
  * <p>
@@ -10,5 +13,10 @@ public enum UploadStatus {
     INITIATED,
     IN_PROGRESS,
     COMPLETED,
-    ABORTED
+    ABORTED;
+
+    /**
+     * States in which parts can still be uploaded and the session completed or aborted.
+     */
+    public static final Set<UploadStatus> OPEN = EnumSet.of(INITIATED, IN_PROGRESS);
 }
@@ -3,10 +3,13 @@ package com.mxverse.storage.r2vault.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
+import java.util.UUID;
 
 /**
  * Entity representing an individual part of a multipart upload.
@@ -16,15 +19,17 @@ import java.time.Instant;
 @Table(name = "uploaded_parts", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"session_id", "part_number"})
 })
-@Data
+@Getter
+@Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class UploadedPart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id", nullable = false)
@@ -46,4 +51,23 @@ public class UploadedPart {
     protected void onCreate() {
         createdAt = Instant.now();
     }
+
+    /**
+     * Identity by id, as for {@link FileRecord}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UploadedPart other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return UploadedPart.class.hashCode();
+    }
 }
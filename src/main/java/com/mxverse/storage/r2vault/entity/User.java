@@ -2,13 +2,25 @@ package com.mxverse.storage.r2vault.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
  * User entity representing a registered system user.
  * Stores credentials used for JWT authentication and file path isolation.
+ * <p>
+ * Kept in the second-level cache, and looked up by username through the cached
+ * natural id, so the repeated username lookups of the file and upload services do not
+ * reach the database.
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-username")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,9 +31,27 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String username;
 
     @Column(nullable = false)
     private String password;
+
+    /**
+     * Disabled users can neither log in nor use previously issued access tokens.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("true")
+    @Builder.Default
+    private boolean enabled = true;
+
+    /**
+     * Embedded in every access token as the {@code ver} claim. Incrementing it
+     * invalidates all access tokens issued before, without a per-request lookup.
+     */
+    @Column(name = "token_version", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long tokenVersion = 0;
 }
@@ -0,0 +1,19 @@
+package com.mxverse.storage.r2vault.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is shed because a dependency or internal resource is saturated.
+ * <p>
+ * Maps to 503 Service Unavailable with a {@code Retry-After} header so clients back off
+ * instead of retrying immediately.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
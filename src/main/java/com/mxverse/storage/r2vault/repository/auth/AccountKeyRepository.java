@@ -2,7 +2,10 @@ package com.mxverse.storage.r2vault.repository.auth;
 
 import com.mxverse.storage.r2vault.entity.AccountKey;
 import com.mxverse.storage.r2vault.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,6 +18,15 @@ import java.util.Optional;
  */
 @Repository
 public interface AccountKeyRepository extends JpaRepository<AccountKey, Long> {
+
+    /**
+     * Cached in the query cache; Hibernate drops the cached results whenever
+     * {@code account_keys} is written.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "account-key-lookups")
+    })
     Optional<AccountKey> findByUser(User user);
 
     Optional<AccountKey> findByUserId(Long userId);
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Repository interface for {@link Device} entities.
@@ -15,7 +16,9 @@ import java.util.Optional;
  * supporting device limit enforcement and session auditing.
  */
 @Repository
-public interface DeviceRepository extends JpaRepository<Device, String> {
+public interface DeviceRepository extends JpaRepository<Device, UUID> {
+    List<Device> findByUser(User user);
+
     List<Device> findByUserAndIsActive(User user, boolean isActive);
 
     Optional<Device> findByUserAndDeviceId(User user, String deviceId);
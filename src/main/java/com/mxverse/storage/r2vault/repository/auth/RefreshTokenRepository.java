@@ -4,8 +4,12 @@ import com.mxverse.storage.r2vault.entity.RefreshToken;
 import com.mxverse.storage.r2vault.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -18,8 +22,20 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByUser(User user);
 
-    Optional<RefreshToken> findByToken(String token);
+    @Query("select rt from RefreshToken rt join fetch rt.user where rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") byte[] tokenHash);
 
     @Modifying
-    int deleteByUser(User user);
+    @Query("delete from RefreshToken rt where rt.user = :user")
+    int deleteByUser(@Param("user") User user);
+
+    /**
+     * Deletes up to {@code limit} expired tokens in its own transaction, so a large backlog
+     * is removed in short transactions instead of one long one.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_token_digests WHERE id IN "
+            + "(SELECT id FROM refresh_token_digests WHERE expiry_date < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("limit") int limit);
 }
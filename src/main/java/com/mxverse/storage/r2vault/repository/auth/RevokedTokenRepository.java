@@ -0,0 +1,30 @@
+package com.mxverse.storage.r2vault.repository.auth;
+
+import com.mxverse.storage.r2vault.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for {@link RevokedToken} entities.
+ * <p>
+ * Backs the in-memory revocation filter: its ids are loaded at startup, and single
+ * rows are read only to confirm a possible hit.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Query("select r.id from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveIds(@Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
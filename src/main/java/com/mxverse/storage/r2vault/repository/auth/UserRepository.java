@@ -1,7 +1,12 @@
 package com.mxverse.storage.r2vault.repository.auth;
 
 import com.mxverse.storage.r2vault.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -9,8 +14,18 @@ import java.util.Optional;
  * Repository interface for {@link User} entities.
  * <p>
  * Provides standard CRUD operations and custom query methods for managing
- * user accounts and authentication.
+ * user accounts and authentication. {@code findByUsername} is served from the
+ * second-level cache (see {@link UserRepositoryCustom}); state that must be current
+ * across instances is read with {@link #findCurrentByUsername(String)}.
  */
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    /**
+     * Loads the user from the database, bypassing the second-level cache. Used where a
+     * cached copy from before another instance's change could be trusted by mistake:
+     * password checks, password resets and token version checks.
+     */
+    @Query("select u from User u where u.username = :username")
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"))
+    Optional<User> findCurrentByUsername(@Param("username") String username);
 }
@@ -0,0 +1,19 @@
+package com.mxverse.storage.r2vault.repository.auth;
+
+import com.mxverse.storage.r2vault.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Username lookups through Hibernate's natural-id API, implemented by {@link UserRepositoryImpl}.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Resolves the user through the natural-id and entity caches, querying only on a miss.
+     *
+     * @param username The username.
+     * @return The user, if one exists.
+     */
+    Optional<User> findByUsername(String username);
+}
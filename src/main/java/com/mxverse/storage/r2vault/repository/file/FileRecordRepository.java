@@ -5,8 +5,10 @@ import com.mxverse.storage.r2vault.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Repository interface for {@link FileRecord} entities.
@@ -15,9 +17,14 @@ import java.util.Optional;
  * files by their unique R2 storage keys.
  */
 @Repository
-public interface FileRecordRepository extends JpaRepository<FileRecord, String> {
+public interface FileRecordRepository extends JpaRepository<FileRecord, UUID> {
     Optional<FileRecord> findByS3Key(String s3Key);
 
     List<FileRecord> findAllByUser(User user);
 
+    /**
+     * Loads the records of several keys in a single query.
+     */
+    List<FileRecord> findAllByS3KeyIn(Collection<String> s3Keys);
+
 }
@@ -3,11 +3,17 @@ package com.mxverse.storage.r2vault.repository.multipart;
 import com.mxverse.storage.r2vault.entity.UploadSession;
 import com.mxverse.storage.r2vault.entity.UploadStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Repository interface for {@link UploadSession} entities.
@@ -16,8 +22,53 @@ import java.util.Optional;
  * to resume or clean up expired uploads.
  */
 @Repository
-public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
     Optional<UploadSession> findByUploadId(String uploadId);
 
+    /**
+     * Loads a session together with its owner and file record, for callers that use it
+     * after the transaction has ended.
+     */
+    @Query("select s from UploadSession s join fetch s.user join fetch s.fileRecord where s.id = :id")
+    Optional<UploadSession> findWithUserAndFileRecordById(@Param("id") UUID id);
+
     List<UploadSession> findAllByStatusAndExpiresAtBefore(UploadStatus status, Instant now);
+
+    /**
+     * Moves a session to {@code to} if it is currently in one of the {@code from} states,
+     * as one conditional update. Concurrent transitions of the same session queue on its
+     * row instead of failing a version check, and exactly one of them sees a count of 1.
+     * <p>
+     * The version is still incremented so that copies of the session loaded before the
+     * transition cannot overwrite it. The persistence context is flushed before and cleared
+     * after the update, so entities loaded earlier in the transaction are detached.
+     *
+     * @return 1 if this call made the transition, 0 if the session was in another state.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UploadSession s set s.status = :to, s.version = s.version + 1, s.updatedAt = :now "
+            + "where s.id = :id and s.status in :from")
+    int transitionStatus(@Param("id") UUID id, @Param("from") Collection<UploadStatus> from,
+                         @Param("to") UploadStatus to, @Param("now") Instant now);
+
+    /**
+     * Moves up to {@code limit} completed or aborted sessions last updated before
+     * {@code cutoff} to {@code upload_sessions_archive}, in its own transaction.
+     * <p>
+     * Leftover parts are deleted in the same statement; the foreign key is checked at its
+     * end, after both deletes. Rows locked by a running request are skipped and picked up
+     * by a later batch.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH batch AS ("
+            + "SELECT id FROM upload_sessions WHERE status IN ('COMPLETED', 'ABORTED') AND updated_at < :cutoff "
+            + "ORDER BY updated_at LIMIT :limit FOR UPDATE SKIP LOCKED), "
+            + "parts AS (DELETE FROM uploaded_parts WHERE session_id IN (SELECT id FROM batch)), "
+            + "moved AS (DELETE FROM upload_sessions WHERE id IN (SELECT id FROM batch) RETURNING *) "
+            + "INSERT INTO upload_sessions_archive (id, user_id, file_record_id, upload_id, part_size, total_parts, "
+            + "total_size, status, created_at, finished_at) "
+            + "SELECT id, user_id, file_record_id, upload_id, part_size, total_parts, total_size, status, "
+            + "created_at, updated_at FROM moved", nativeQuery = true)
+    int archiveFinishedBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -3,10 +3,14 @@ package com.mxverse.storage.r2vault.repository.multipart;
 import com.mxverse.storage.r2vault.entity.UploadedPart;
 import com.mxverse.storage.r2vault.entity.UploadSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Repository interface for {@link UploadedPart} entities.
@@ -15,8 +19,16 @@ import java.util.Optional;
  * ensuring that progress is saved correctly and parts are ordered for completion.
  */
 @Repository
-public interface UploadedPartRepository extends JpaRepository<UploadedPart, String> {
+public interface UploadedPartRepository extends JpaRepository<UploadedPart, UUID> {
     Optional<UploadedPart> findBySessionAndPartNumber(UploadSession session, Integer partNumber);
 
     List<UploadedPart> findAllBySessionOrderByPartNumberAsc(UploadSession session);
+
+    /**
+     * Deletes the parts of a finished session in one statement. Once the upload is
+     * completed or aborted in R2 the part ETags are no longer needed.
+     */
+    @Modifying
+    @Query("delete from UploadedPart p where p.session = :session")
+    int deleteAllBySession(@Param("session") UploadSession session);
 }
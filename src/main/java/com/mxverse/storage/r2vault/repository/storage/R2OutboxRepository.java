@@ -0,0 +1,37 @@
+package com.mxverse.storage.r2vault.repository.storage;
+
+import com.mxverse.storage.r2vault.entity.R2OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for {@link R2OutboxEvent} entities.
+ * <p>
+ * Holds the pending R2 side effects and lets several instances claim disjoint
+ * batches of them.
+ */
+@Repository
+public interface R2OutboxRepository extends JpaRepository<R2OutboxEvent, UUID> {
+
+    /**
+     * Locks the oldest due events. Rows already locked by another dispatcher are skipped
+     * ({@code FOR UPDATE SKIP LOCKED}) instead of waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from R2OutboxEvent e where e.nextAttemptAt <= :now and e.attempts < :maxAttempts "
+            + "order by e.nextAttemptAt")
+    List<R2OutboxEvent> findDueForUpdate(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts,
+                                         Limit limit);
+}
@@ -0,0 +1,90 @@
+package com.mxverse.storage.r2vault.service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mxverse.storage.r2vault.config.JwtConfig;
+import com.mxverse.storage.r2vault.util.Hashing;
+import com.mxverse.storage.r2vault.util.JwtUtils;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Verifies bearer tokens, remembering the ones already verified.
+ * <p>
+ * Clients send the same access token for its whole lifetime, so after the first request
+ * the signature check is replaced by a SHA-256 of the token and a cache lookup. The cache
+ * is keyed by the digest rather than the token itself, and an entry never outlives the
+ * token's own expiry. Entries for a user are dropped when their tokens are revoked.
+ */
+@Service
+@Slf4j
+public class AccessTokenVerifier {
+
+    private final JwtUtils jwtUtils;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public AccessTokenVerifier(JwtUtils jwtUtils, JwtConfig jwtConfig) {
+        this.jwtUtils = jwtUtils;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getVerifiedTokenCacheSize())
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    /**
+     * @param token The compact JWT from the Authorization header.
+     * @return The verified token.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        VerifiedToken verified = jwtUtils.verify(token);
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    /**
+     * Drops every cached token of a user.
+     *
+     * @param username The user whose tokens were revoked.
+     */
+    public void evict(String username) {
+        verifiedTokens.asMap().values().removeIf(token -> username.equals(token.username()));
+        log.debug("Evicted cached access tokens for user: {}", username);
+    }
+
+    private static String digest(String token) {
+        return Base64.getEncoder().encodeToString(Hashing.sha256(token));
+    }
+
+    /**
+     * Expires each entry when its token expires.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
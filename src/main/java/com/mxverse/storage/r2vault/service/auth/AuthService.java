@@ -10,12 +10,12 @@ import com.mxverse.storage.r2vault.exception.TokenRefreshException;
 import com.mxverse.storage.r2vault.exception.UserAlreadyExistsException;
 import com.mxverse.storage.r2vault.entity.AccountKey;
 import com.mxverse.storage.r2vault.entity.Device;
-import com.mxverse.storage.r2vault.entity.RefreshToken;
 import com.mxverse.storage.r2vault.entity.User;
 import com.mxverse.storage.r2vault.repository.auth.AccountKeyRepository;
 import com.mxverse.storage.r2vault.repository.auth.DeviceRepository;
 import com.mxverse.storage.r2vault.repository.auth.UserRepository;
 import com.mxverse.storage.r2vault.util.JwtUtils;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,6 +25,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.List;
@@ -50,6 +51,10 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
     private final RefreshTokenService refreshTokenService;
+    private final UserStatusCache userStatusCache;
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final TokenRevocationService tokenRevocationService;
+    private final TransactionTemplate transactionTemplate;
 
     private static final int MAX_DEVICES = 2;
 
@@ -93,39 +98,62 @@ public class AuthService {
 
     /**
      * Authenticates a user and generates both access and refresh tokens.
+     * <p>
+     * The password is verified before the transaction opens, so a login waiting for a
+     * BCrypt thread does not hold a database connection. A rejected device is reported
+     * after the transaction commits, keeping any eviction the request asked for.
      *
      * @param request the AuthRequest obj containing username and pass
      * @return A TokenResponse containing the JWT access token and refresh token.
      */
-    @Transactional(noRollbackFor = DeviceLimitExceededException.class)
     public TokenResponse login(AuthRequest request) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.username(), request.password()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        User user = userRepository.findByUsername(request.username())
-                .orElseThrow(() -> new RuntimeException("User not found after auth"));
+        // The user loaded for password verification; only its id and token version are used below
+        User user = ((AuthenticatedUser) authentication.getPrincipal()).getUser();
 
+        LoginOutcome outcome = transactionTemplate.execute(status -> {
+            try {
+                return new LoginOutcome(issueTokens(user, request), null);
+            } catch (DeviceLimitExceededException e) {
+                return new LoginOutcome(null, e);
+            }
+        });
+        if (outcome.deviceLimit() != null) {
+            throw outcome.deviceLimit();
+        }
+        return outcome.response();
+    }
+
+    private TokenResponse issueTokens(User user, AuthRequest request) {
         // Device Management
+        Device currentDevice = null;
         if (request.deviceId() != null) {
+            List<Device> devices = deviceRepository.findByUser(user);
+
             // Handle explicit eviction request
             if (request.evictDeviceId() != null) {
-                deviceRepository.findById(request.evictDeviceId()).ifPresent(device -> {
-                    if (device.getUser().getId().equals(user.getId())) {
-                        device.setActive(false);
-                        deviceRepository.save(device);
-                        // Also kill the session for that device if we can
-                        refreshTokenService.deleteByUserId(user.getUsername());
-                        log.info("Evicted device: {} for user: {}", request.evictDeviceId(), user.getUsername());
-                    }
-                });
+                devices.stream()
+                        .filter(device -> device.getId().toString().equals(request.evictDeviceId()))
+                        .findFirst()
+                        .ifPresent(evicted -> {
+                            evicted.setActive(false);
+                            // Also kill the session for that device
+                            refreshTokenService.deleteByUser(user);
+                            tokenRevocationService.revokeDevice(evicted.getId().toString());
+                            log.info("Evicted device: {} for user: {}", request.evictDeviceId(), user.getUsername());
+                        });
             }
-            handleDeviceLogin(user, request.deviceId(), request.deviceName());
+            currentDevice = handleDeviceLogin(user, devices, request.deviceId(), request.deviceName());
         }
 
-        String accessToken = jwtUtils.generateToken(user.getUsername());
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getUsername());
+        String accessToken = jwtUtils.generateToken(user.getUsername(), user.getTokenVersion(),
+                currentDevice != null ? currentDevice.getId().toString() : null);
+        String refreshToken = refreshTokenService.createRefreshToken(user,
+                currentDevice != null ? currentDevice.getId() : null);
 
         // Fetch Account Key metadata
         AccountKeyMetadataDto akDto = accountKeyRepository.findByUser(user)
@@ -135,37 +163,47 @@ public class AuthService {
         log.info("User logged in: {}", user.getUsername());
         return TokenResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken)
                 .type("Bearer")
                 .accountKey(akDto)
                 .build();
     }
 
+    private record LoginOutcome(TokenResponse response, DeviceLimitExceededException deviceLimit) {
+    }
+
     /**
      * Handles the device-specific logic during login.
      * Checks if the device is already registered or if the device limit has been reached.
+     * Works on the user's devices loaded once by the caller; changes to them are flushed
+     * with the transaction.
      *
      * @param user     The authenticated user.
+     * @param devices  All devices of the user.
      * @param deviceId The unique ID of the device.
      * @param name     The descriptive name of the device.
+     * @return The device logged in with.
      * @throws DeviceLimitExceededException if the user has reached the maximum allowed active devices.
      */
-    private void handleDeviceLogin(User user, String deviceId, String name) {
-        Optional<Device> existing = deviceRepository.findByUserAndDeviceId(user, deviceId);
+    private Device handleDeviceLogin(User user, List<Device> devices, String deviceId, String name) {
+        Optional<Device> existing = devices.stream()
+                .filter(device -> device.getDeviceId().equals(deviceId))
+                .findFirst();
         if (existing.isPresent()) {
             Device device = existing.get();
             device.setLastActiveAt(Instant.now());
             device.setActive(true);
-            deviceRepository.save(device);
-            return;
+            return device;
         }
 
-        List<Device> activeDevices = deviceRepository.findByUserAndIsActive(user, true);
+        List<Device> activeDevices = devices.stream()
+                .filter(Device::isActive)
+                .toList();
         if (activeDevices.size() >= MAX_DEVICES) {
             throw new DeviceLimitExceededException("Device limit exceeded", activeDevices);
         }
 
-        registerDevice(user, deviceId, name);
+        return registerDevice(user, deviceId, name);
     }
 
     /**
@@ -174,8 +212,9 @@ public class AuthService {
      * @param user     The user to whom the device belongs.
      * @param deviceId The unique hardware/app ID of the device.
      * @param name     The display name of the device.
+     * @return The saved device.
      */
-    private void registerDevice(User user, String deviceId, String name) {
+    private Device registerDevice(User user, String deviceId, String name) {
         Device device = Device.builder()
                 .user(user)
                 .deviceId(deviceId)
@@ -184,19 +223,37 @@ public class AuthService {
                 .lastActiveAt(Instant.now())
                 .isActive(true)
                 .build();
-        deviceRepository.save(device);
+        return deviceRepository.save(device);
     }
 
     /**
-     * Logs out the user by deleting their refresh token from the database.
+     * Logs out the user by deleting their refresh token from the database and
+     * revoking the access token the logout request was made with.
      *
-     * @param username The username of the user to log out.
+     * @param username    The username of the user to log out.
+     * @param accessToken The verified access token of the current request, if any.
      */
-    public void logout(String username) {
-        refreshTokenService.deleteByUserId(username);
+    @Transactional
+    public void logout(String username, VerifiedToken accessToken) {
+        userRepository.findByUsername(username).ifPresent(refreshTokenService::deleteByUser);
+        if (accessToken != null) {
+            tokenRevocationService.revoke(accessToken);
+        }
         log.info("User logged out: {}", username);
     }
 
+    /**
+     * Bumps the user's token version so every access token issued before is rejected, and
+     * deletes the refresh token so no new ones can be obtained with it.
+     */
+    private void revokeSessions(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        userStatusCache.invalidate(user.getUsername());
+        accessTokenVerifier.evict(user.getUsername());
+        refreshTokenService.deleteByUser(user);
+    }
+
     /**
      * Refreshes the access token using a valid, non-expired refresh token.
      *
@@ -204,19 +261,12 @@ public class AuthService {
      * @return A new TokenResponse with a fresh access token.
      * @throws TokenRefreshException if the token is invalid or expired.
      */
+    @Transactional
     public TokenResponse refreshToken(String refreshToken) {
-        return refreshTokenService.findByToken(refreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    log.info("Access token refreshed for user: {}", user.getUsername());
-                    String token = jwtUtils.generateToken(user.getUsername());
-                    return new TokenResponse(token, refreshToken, "Bearer", null);
-                })
-                .orElseThrow(() -> {
-                    log.error("Refresh token not found: {}", refreshToken);
-                    return new TokenRefreshException(refreshToken, "Refresh token is not in database!");
-                });
+        RefreshTokenService.RefreshSession session = refreshTokenService.verify(refreshToken);
+        log.info("Access token refreshed for user: {}", session.username());
+        String token = jwtUtils.generateToken(session.username(), session.tokenVersion(), session.deviceId());
+        return new TokenResponse(token, refreshToken, "Bearer", null);
     }
 
     /**
@@ -251,11 +301,12 @@ public class AuthService {
      */
     @Transactional
     public void resetPassword(ResetPasswordRequest request) {
-        User user = userRepository.findByUsername(request.username())
+        // Not from the second-level cache: the token version must be bumped from its current value
+        User user = userRepository.findCurrentByUsername(request.username())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         user.setPassword(passwordEncoder.encode(request.newPassword()));
-        userRepository.save(user);
+        revokeSessions(user);
 
         AccountKey accountKey = accountKeyRepository.findByUser(user)
                 .orElseThrow(() -> new ResourceNotFoundException("Account key not found"));
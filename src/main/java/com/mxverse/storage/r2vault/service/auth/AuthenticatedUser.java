@@ -0,0 +1,24 @@
+package com.mxverse.storage.r2vault.service.auth;
+
+import com.mxverse.storage.r2vault.entity.User;
+import lombok.Getter;
+
+import java.util.Collections;
+
+/**
+ * {@link org.springframework.security.core.userdetails.UserDetails} that keeps the
+ * {@link User} entity it was loaded from.
+ * <p>
+ * Lets the login flow continue with the user that was loaded for password verification
+ * instead of looking it up again.
+ */
+@Getter
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final transient User user;
+
+    public AuthenticatedUser(User user) {
+        super(user.getUsername(), user.getPassword(), user.isEnabled(), true, true, true, Collections.emptyList());
+        this.user = user;
+    }
+}
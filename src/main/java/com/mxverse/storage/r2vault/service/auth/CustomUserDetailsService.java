@@ -1,5 +1,6 @@
 package com.mxverse.storage.r2vault.service.auth;
 
+import com.mxverse.storage.r2vault.config.ReadYourWritesGuard;
 import com.mxverse.storage.r2vault.entity.User;
 import com.mxverse.storage.r2vault.repository.auth.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -10,13 +11,14 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-
 /**
  * Custom implementation of Spring Security's {@link UserDetailsService}.
  * <p>
  * Bridge between the application's {@link User} entity and Spring Security's
- * internal authentication mechanisms.
+ * internal authentication mechanisms. The returned {@link AuthenticatedUser} carries
+ * the loaded entity so callers do not have to load it again. Users are read from the
+ * primary: login verifies passwords outside a transaction, and a replica could still
+ * hold a password that was just reset.
  */
 @Service
 @RequiredArgsConstructor
@@ -24,15 +26,13 @@ import java.util.Collections;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
 
     @Override
     public UserDetails loadUserByUsername(@NonNull String username) throws UsernameNotFoundException {
         log.debug("Loading user details for: {}", username);
-        return userRepository.findByUsername(username)
-                .map(user -> new org.springframework.security.core.userdetails.User(
-                        user.getUsername(),
-                        user.getPassword(),
-                        Collections.emptyList()))
+        return readYourWritesGuard.onPrimary(() -> userRepository.findCurrentByUsername(username))
+                .map(AuthenticatedUser::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 }
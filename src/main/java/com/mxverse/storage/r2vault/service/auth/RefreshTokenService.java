@@ -1,17 +1,21 @@
 package com.mxverse.storage.r2vault.service.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mxverse.storage.r2vault.config.JwtConfig;
 import com.mxverse.storage.r2vault.exception.TokenRefreshException;
 import com.mxverse.storage.r2vault.entity.RefreshToken;
 import com.mxverse.storage.r2vault.entity.User;
 import com.mxverse.storage.r2vault.repository.auth.RefreshTokenRepository;
-import com.mxverse.storage.r2vault.repository.auth.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import com.mxverse.storage.r2vault.util.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Base64;
 import java.util.UUID;
 
 /**
@@ -19,28 +23,43 @@ import java.util.UUID;
  * <p>
  * Responsible for creating, rotating, and validating refresh tokens
  * to maintain secure cross-session persistent authentication.
+ * <p>
+ * Tokens are 256-bit random values; only their SHA-256 is stored. Recently verified
+ * tokens are kept in a short-TTL cache so refresh storms do not all reach the database,
+ * and expired rows are swept in batches.
  */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RefreshTokenService {
 
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final UserRepository userRepository;
+    private static final int TOKEN_BYTES = 32;
 
-    @Value("${jwt.refresh-expiration}")
-    private long refreshTokenExpirationMs;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtConfig jwtConfig;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Cache<String, RefreshSession> verifiedTokens;
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, JwtConfig jwtConfig) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtConfig = jwtConfig;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getRefreshTokenCacheSize())
+                .expireAfterWrite(jwtConfig.getRefreshTokenCacheTtl())
+                .build();
     }
 
     /**
      * Creates a new refresh token for a user or updates the existing one.
+     *
+     * @param user     The user, already loaded by the caller.
+     * @param deviceId The {@code Device} the login came from, or {@code null}.
+     * @return The raw token to hand to the client. It cannot be recovered later.
      */
     @Transactional
-    public RefreshToken createRefreshToken(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public String createRefreshToken(User user, UUID deviceId) {
+        byte[] random = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
 
         // If user already has a token, we update it instead of deleting to avoid
         // unique constraint issues in the same transaction
@@ -48,31 +67,97 @@ public class RefreshTokenService {
                 .orElse(new RefreshToken());
 
         refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenExpirationMs));
+        refreshToken.setTokenHash(Hashing.sha256(token));
+        refreshToken.setExpiryDate(Instant.now().plusMillis(jwtConfig.getRefreshExpiration()));
+        refreshToken.setDeviceId(deviceId);
+        refreshTokenRepository.save(refreshToken);
 
-        return refreshTokenRepository.save(refreshToken);
+        evict(user.getUsername());
+        return token;
     }
 
     /**
-     * Validates if the token has expired.
+     * Resolves a refresh token to the session it belongs to.
+     * An expired token is deleted.
+     *
+     * @param token The raw token sent by the client.
+     * @return The session the token belongs to.
+     * @throws TokenRefreshException if the token is unknown or expired.
      */
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
-            throw new TokenRefreshException(token.getToken(),
-                    "Refresh token was expired. Please make a new signin request");
+    @Transactional(noRollbackFor = TokenRefreshException.class)
+    public RefreshSession verify(String token) {
+        byte[] tokenHash = Hashing.sha256(token);
+        String cacheKey = Base64.getEncoder().encodeToString(tokenHash);
+
+        RefreshSession cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && cached.expiryDate().isAfter(Instant.now())) {
+            return cached;
         }
-        return token;
+
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new TokenRefreshException(token, "Refresh token is not in database!"));
+
+        if (refreshToken.getExpiryDate().isBefore(Instant.now())) {
+            verifiedTokens.invalidate(cacheKey);
+            refreshTokenRepository.delete(refreshToken);
+            throw new TokenRefreshException(token, "Refresh token was expired. Please make a new signin request");
+        }
+
+        User user = refreshToken.getUser();
+        RefreshSession session = new RefreshSession(user.getUsername(), user.getTokenVersion(),
+                refreshToken.getDeviceId() != null ? refreshToken.getDeviceId().toString() : null,
+                refreshToken.getExpiryDate());
+        verifiedTokens.put(cacheKey, session);
+        return session;
     }
 
     /**
-     * Revokes a token (Logout).
+     * Revokes a user's token (Logout) with a single delete statement.
+     *
+     * @param user The user, already loaded by the caller.
      */
     @Transactional
-    public int deleteByUserId(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public int deleteByUser(User user) {
+        evict(user.getUsername());
         return refreshTokenRepository.deleteByUser(user);
     }
+
+    /**
+     * Drops the user's verified tokens from memory, e.g. after their token version changed.
+     *
+     * @param username The user whose sessions changed.
+     */
+    public void evict(String username) {
+        verifiedTokens.asMap().values().removeIf(session -> username.equals(session.username()));
+    }
+
+    /**
+     * Runs every hour to delete expired refresh tokens in batches.
+     */
+    @Scheduled(fixedRate = 3600000) // 1 hour
+    public void sweepExpiredTokens() {
+        int batchSize = jwtConfig.getRefreshTokenSweepBatchSize();
+        Instant now = Instant.now();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.info("Swept {} expired refresh tokens", total);
+        }
+    }
+
+    /**
+     * What a verified refresh token grants.
+     *
+     * @param username     The token's user.
+     * @param tokenVersion The user's token version when the token was verified.
+     * @param deviceId     The {@code Device} id for the access token's {@code did} claim, or {@code null}.
+     * @param expiryDate   When the refresh token expires.
+     */
+    public record RefreshSession(String username, long tokenVersion, String deviceId, Instant expiryDate) {
+    }
 }
@@ -0,0 +1,169 @@
+package com.mxverse.storage.r2vault.service.auth;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mxverse.storage.r2vault.config.JwtConfig;
+import com.mxverse.storage.r2vault.config.ReadYourWritesGuard;
+import com.mxverse.storage.r2vault.entity.RevokedToken;
+import com.mxverse.storage.r2vault.repository.auth.RevokedTokenRepository;
+import com.mxverse.storage.r2vault.util.BloomFilter;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation list for access tokens, checked on every authenticated request.
+ * <p>
+ * Revocations are persisted in {@code revoked_tokens} and mirrored into an in-memory
+ * {@link BloomFilter}. A token that misses the filter, which is almost every token, is
+ * accepted after a few memory reads. Only a possible hit is confirmed against the table,
+ * and confirmations are cached briefly.
+ * <p>
+ * The filter is rebuilt from the table at startup and every few minutes. The periodic
+ * rebuild drops expired revocations and picks up revocations made by other instances.
+ * Revocations made here are published to the filter once their transaction commits,
+ * and those published while a rebuild runs are added to the rebuilt filter as well.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final String DEVICE_PREFIX = "device:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtConfig jwtConfig;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final LoadingCache<String, Optional<Instant>> confirmations;
+
+    private volatile BloomFilter filter;
+    private volatile Set<String> publishedSinceRebuild = ConcurrentHashMap.newKeySet();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, JwtConfig jwtConfig,
+                                  ReadYourWritesGuard readYourWritesGuard) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtConfig = jwtConfig;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.confirmations = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                // Confirmations are rare; read them from the primary so a lagging replica cannot clear a revocation
+                .build(id -> readYourWritesGuard.onPrimary(() -> revokedTokenRepository.findById(id))
+                        .map(RevokedToken::getRevokedAt));
+    }
+
+    /**
+     * Runs every five minutes, and once before the application accepts requests.
+     */
+    @PostConstruct
+    @Scheduled(fixedRate = 300000, initialDelay = 300000) // 5 minutes
+    public void rebuild() {
+        // Revocations committed after the query started may be missing from its result
+        Set<String> published = ConcurrentHashMap.newKeySet();
+        publishedSinceRebuild = published;
+        List<String> ids = readYourWritesGuard.onPrimary(() -> revokedTokenRepository.findActiveIds(Instant.now()));
+        BloomFilter rebuilt = new BloomFilter(
+                Math.max(jwtConfig.getRevocationExpectedEntries(), ids.size() * 2L),
+                jwtConfig.getRevocationFalsePositiveRate());
+        ids.forEach(rebuilt::put);
+        filter = rebuilt;
+        // A publish that still wrote to the old filter has recorded its id by now
+        published.forEach(rebuilt::put);
+        log.debug("Rebuilt token revocation filter with {} entries", ids.size());
+    }
+
+    /**
+     * Runs every hour to delete revocations whose tokens have all expired.
+     */
+    @Scheduled(fixedRate = 3600000) // 1 hour
+    public void sweepExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Swept {} expired token revocations", deleted);
+        }
+    }
+
+    /**
+     * @param token A token whose signature and expiry are already verified.
+     * @return {@code true} if the token itself or its device has been revoked.
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        BloomFilter current = filter;
+        if (token.tokenId() != null && current.mightContain(token.tokenId())
+                && confirmations.get(token.tokenId()).isPresent()) {
+            return true;
+        }
+        if (token.deviceId() != null) {
+            String deviceKey = DEVICE_PREFIX + token.deviceId();
+            if (current.mightContain(deviceKey)) {
+                // Only tokens issued before the device was revoked are affected
+                return confirmations.get(deviceKey)
+                        .map(revokedAt -> token.issuedAt().isBefore(revokedAt))
+                        .orElse(false);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Revokes a single access token.
+     *
+     * @param token The token to revoke.
+     */
+    public void revoke(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            return;
+        }
+        save(token.tokenId(), token.expiresAt());
+        log.info("Revoked access token {} of user: {}", token.tokenId(), token.username());
+    }
+
+    /**
+     * Revokes every access token issued to a device so far.
+     *
+     * @param deviceId The {@code Device} id carried in the tokens' {@code did} claim.
+     */
+    public void revokeDevice(String deviceId) {
+        save(DEVICE_PREFIX + deviceId, Instant.now().plusMillis(jwtConfig.getExpiration()));
+        log.info("Revoked access tokens of device: {}", deviceId);
+    }
+
+    private void save(String id, Instant expiresAt) {
+        // Token timestamps have second precision; tokens issued in the same second survive
+        Instant revokedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        revokedTokenRepository.save(RevokedToken.builder()
+                .id(id)
+                .revokedAt(revokedAt)
+                .expiresAt(expiresAt)
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // An uncommitted revocation is invisible to a rebuild and may still roll back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(id, revokedAt);
+                }
+            });
+        } else {
+            publish(id, revokedAt);
+        }
+    }
+
+    private void publish(String id, Instant revokedAt) {
+        // Recorded before the filter is read, so a concurrent rebuild re-puts it after its swap
+        publishedSinceRebuild.add(id);
+        filter.put(id);
+        confirmations.put(id, Optional.of(revokedAt));
+    }
+}
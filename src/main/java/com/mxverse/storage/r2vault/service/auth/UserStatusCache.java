@@ -0,0 +1,84 @@
+package com.mxverse.storage.r2vault.service.auth;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mxverse.storage.r2vault.config.JwtConfig;
+import com.mxverse.storage.r2vault.config.ReadYourWritesGuard;
+import com.mxverse.storage.r2vault.repository.auth.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Small evicting cache of the user state that request authentication depends on.
+ * <p>
+ * Lets {@code JwtAuthenticationFilter} authenticate from token claims alone: the only
+ * thing it needs from the database is whether the user still exists, is enabled and
+ * whether the token's version is current, and that is served from here. Entries expire
+ * after {@code jwt.user-status-ttl} and are invalidated explicitly when the state changes
+ * through this service (logout, password reset).
+ */
+@Service
+@Slf4j
+public class UserStatusCache {
+
+    private final LoadingCache<String, UserStatus> statuses;
+
+    public UserStatusCache(UserRepository userRepository, JwtConfig jwtConfig, ReadYourWritesGuard readYourWritesGuard) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getUserStatusCacheSize())
+                .expireAfterWrite(jwtConfig.getUserStatusTtl())
+                // Read from the primary: a lagging replica would re-admit tokens revoked by a version bump
+                .build(username -> readYourWritesGuard.onPrimary(() -> userRepository.findCurrentByUsername(username))
+                        .map(user -> new UserStatus(true, user.isEnabled(), user.getTokenVersion()))
+                        .orElse(UserStatus.MISSING));
+    }
+
+    /**
+     * @param username The token subject.
+     * @return The user's current status, loaded from the database on a miss.
+     */
+    public UserStatus get(String username) {
+        return statuses.get(username);
+    }
+
+    /**
+     * Drops the cached status once the current transaction commits, so a concurrent
+     * request cannot reload and cache the state that is being replaced.
+     *
+     * @param username The user whose state changed.
+     */
+    public void invalidate(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    statuses.invalidate(username);
+                }
+            });
+        }
+        statuses.invalidate(username);
+        log.debug("Invalidated cached status for user: {}", username);
+    }
+
+    /**
+     * Authentication-relevant state of a user.
+     *
+     * @param exists       Whether the user exists.
+     * @param enabled      Whether the user may authenticate.
+     * @param tokenVersion The version access tokens must carry to be accepted.
+     */
+    public record UserStatus(boolean exists, boolean enabled, long tokenVersion) {
+
+        static final UserStatus MISSING = new UserStatus(false, false, 0);
+
+        /**
+         * @param version The {@code ver} claim of an access token.
+         * @return {@code true} if a token with this version is accepted for the user.
+         */
+        public boolean accepts(long version) {
+            return exists && enabled && version == tokenVersion;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.mxverse.storage.r2vault.service.file;
 
+import com.mxverse.storage.r2vault.config.R2Properties;
 import com.mxverse.storage.r2vault.dto.file.FileDownloadResponse;
 import com.mxverse.storage.r2vault.dto.file.FileMetadata;
 import com.mxverse.storage.r2vault.entity.FileRecord;
@@ -12,6 +13,14 @@ import com.mxverse.storage.r2vault.exception.InvalidFileException;
 import com.mxverse.storage.r2vault.exception.QuotaExceededException;
 import com.mxverse.storage.r2vault.repository.auth.UserRepository;
 import com.mxverse.storage.r2vault.repository.file.FileRecordRepository;
+import com.mxverse.storage.r2vault.service.storage.BandwidthLimiter;
+import com.mxverse.storage.r2vault.service.storage.ParallelRangeInputStream;
+import com.mxverse.storage.r2vault.service.storage.R2CallGuard;
+import com.mxverse.storage.r2vault.service.storage.R2HedgingPolicy;
+import com.mxverse.storage.r2vault.service.storage.R2OutboxService;
+import com.mxverse.storage.r2vault.service.storage.R2ReadCoalescer;
+import com.mxverse.storage.r2vault.service.storage.R2TransferEngine;
+import com.mxverse.storage.r2vault.util.UuidV7;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,13 +28,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.ResponseInputStream;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -40,8 +50,17 @@ import java.util.stream.Collectors;
 public class FileService {
 
     private final S3Client s3Client;
+    private final R2TransferEngine transferEngine;
+    private final R2CallGuard r2CallGuard;
+    private final R2HedgingPolicy r2HedgingPolicy;
+    private final R2ReadCoalescer r2ReadCoalescer;
+    private final R2OutboxService r2OutboxService;
+    private final UploadMetrics uploadMetrics;
+    private final BandwidthLimiter bandwidthLimiter;
     private final FileRecordRepository fileRecordRepository;
     private final UserRepository userRepository;
+    private final R2Properties r2Properties;
+    private final ExecutorService r2TransferExecutor;
 
     @Value("${r2.bucket}")
     private String bucketName;
@@ -61,6 +80,10 @@ public class FileService {
      * Uploads a file to R2 storage for a specific user.
      * Validates remaining quota, including concurrently active uploads, before
      * proceeding.
+     * <p>
+     * Not transactional: the object is streamed to R2 without holding a database
+     * connection, and the metadata is saved afterwards in a short transaction of its own.
+     * If that save fails, the object is queued for deletion rather than left orphaned.
      *
      * @param userId       The unique identifier of the user (extracted from
      *                     security
@@ -74,7 +97,6 @@ public class FileService {
      * @throws FileStorageException   If there is an error reading the file stream
      *                                or uploading.
      */
-    @Transactional
     public String uploadFile(String userId, MultipartFile file, String encryptedKey, String iv) {
 
         if (file.isEmpty()) {
@@ -83,6 +105,10 @@ public class FileService {
         long fileSize = file.getSize();
         validateQuota(userId, fileSize);
 
+        // Resolved before the upload so an unknown user cannot leave an object behind
+        User user = userRepository.findByUsername(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
         // Track ongoing upload size to prevent race conditions during quota checks
         ongoingUploads.computeIfAbsent(userId, k -> new AtomicLong(0)).addAndGet(fileSize);
 
@@ -94,7 +120,7 @@ public class FileService {
             }
 
             // Standard isolation pattern: users/{userId}/{uuid}{extension}
-            String key = "users/" + userId + "/" + UUID.randomUUID() + extension;
+            String key = "users/" + userId + "/" + UuidV7.randomUuid() + extension;
 
             PutObjectRequest putRequest = PutObjectRequest.builder()
                     .bucket(bucketName)
@@ -104,12 +130,11 @@ public class FileService {
                     .build();
 
             log.info("Uploading file to R2: bucket={}, key={}, size={}", bucketName, key, fileSize);
-            s3Client.putObject(putRequest, RequestBody.fromInputStream(file.getInputStream(), fileSize));
+            bandwidthLimiter.awaitUpload(userId, fileSize);
+            InputStream content = file.getInputStream();
+            r2CallGuard.execute("PutObject", () -> transferEngine.putObject(putRequest, content, fileSize));
 
             // Persist metadata in DB
-            User user = userRepository.findByUsername(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             FileRecord record = FileRecord.builder()
                     .user(user)
                     .s3Key(key)
@@ -121,8 +146,15 @@ public class FileService {
                     .algorithm("AES/GCM/NoPadding")
                     .build();
 
-            fileRecordRepository.save(record);
+            try {
+                fileRecordRepository.save(record);
+            } catch (RuntimeException e) {
+                log.error("Failed to save metadata for uploaded object {}, queueing its deletion", key);
+                r2OutboxService.enqueueDelete(key);
+                throw e;
+            }
 
+            uploadMetrics.directUploadStored(fileSize);
             return key;
 
         } catch (IOException e) {
@@ -149,6 +181,7 @@ public class FileService {
                 userId, currentUsage, currentlyUploading, incomingSize, totalProjected, QUOTA_LIMIT);
 
         if (totalProjected > QUOTA_LIMIT) {
+            uploadMetrics.quotaRejected();
             throw new QuotaExceededException(String.format(
                     "Storage quota exceeded. Used: %d bytes, Ongoing: %d bytes, New: %d bytes, Limit: %d bytes",
                     currentUsage, currentlyUploading, incomingSize, QUOTA_LIMIT));
@@ -158,38 +191,133 @@ public class FileService {
     /**
      * Retrieves a file from R2 storage with its metadata.
      * Validates that the file belongs to the requested user.
+     * <p>
+     * When parallel downloads are enabled and no range is requested, objects larger
+     * than one chunk are fetched as several concurrent ranged GETs.
      *
      * @param key    The unique identifier of the file.
      * @param userId The user ID requesting the file.
+     * @param range  Optional HTTP Range header forwarded to R2.
      * @return A FileDownloadResponse containing the stream and metadata.
      */
     public FileDownloadResponse downloadFile(String key, String userId, String range) {
         validateOwnership(key, userId);
         log.info("Downloading file from R2: bucket={}, key={}, range={}", bucketName, key, range);
 
+        if (range == null && r2Properties.getDownload().isParallelEnabled()) {
+            FileDownloadResponse response = downloadParallel(key);
+            return new FileDownloadResponse(
+                    bandwidthLimiter.throttleDownload(userId, response.inputStream()),
+                    response.fileName(),
+                    response.contentType(),
+                    response.size(),
+                    response.contentRange());
+        }
+
+        if (range != null) {
+            log.debug("Applying range header to S3 request: {}", range);
+        }
+
+        ResponseInputStream<GetObjectResponse> s3Response = getFirstBytes(key, range);
+        GetObjectResponse metadata = s3Response.response();
+
+        return new FileDownloadResponse(
+                bandwidthLimiter.throttleDownload(userId, s3Response),
+                resolveFileName(key, metadata),
+                metadata.contentType(),
+                metadata.contentLength(),
+                metadata.contentRange());
+    }
+
+    /**
+     * Downloads a full object by probing the first chunk and, if the object is larger,
+     * fetching the remaining chunks concurrently through a bounded read-ahead window.
+     *
+     * @param key The unique identifier of the file.
+     * @return A FileDownloadResponse streaming the whole object in order.
+     */
+    private FileDownloadResponse downloadParallel(String key) {
+        R2Properties.Download settings = r2Properties.getDownload();
+        long chunkSize = settings.getChunkSize().toBytes();
+
+        ResponseInputStream<GetObjectResponse> firstChunk;
+        try {
+            firstChunk = getFirstBytes(key, "bytes=0-" + (chunkSize - 1));
+        } catch (S3Exception e) {
+            if (e.statusCode() != 416) {
+                throw e;
+            }
+            // Empty objects cannot satisfy a range request
+            firstChunk = getFirstBytes(key, null);
+        }
+
+        GetObjectResponse metadata = firstChunk.response();
+        long firstChunkLength = metadata.contentLength();
+        long totalSize = parseTotalSize(metadata.contentRange(), firstChunkLength);
+
+        InputStream body = firstChunk;
+        if (totalSize > firstChunkLength) {
+            log.debug("Parallel download for key={}: size={}, chunkSize={}, concurrency={}",
+                    key, totalSize, chunkSize, settings.getConcurrency());
+            body = new ParallelRangeInputStream(firstChunk, firstChunkLength, totalSize, chunkSize,
+                    settings.getConcurrency(),
+                    (start, end) -> getShared(key, "bytes=" + start + "-" + end),
+                    r2TransferExecutor);
+        }
+
+        return new FileDownloadResponse(
+                body,
+                resolveFileName(key, metadata),
+                metadata.contentType(),
+                totalSize,
+                null);
+    }
+
+    /**
+     * Opens the response the client is waiting on, hedged when hedging is enabled.
+     * Read-ahead chunks of a parallel download are not hedged: they already run on the
+     * transfer executor ahead of the client.
+     */
+    private ResponseInputStream<GetObjectResponse> getFirstBytes(String key, String range) {
+        return r2ReadCoalescer.open(key, range, r -> r2HedgingPolicy.execute(() -> getObject(key, r)));
+    }
+
+    private ResponseInputStream<GetObjectResponse> getShared(String key, String range) {
+        return r2ReadCoalescer.open(key, range, r -> getObject(key, r));
+    }
+
+    private ResponseInputStream<GetObjectResponse> getObject(String key, String range) {
         GetObjectRequest.Builder getRequestBuilder = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key);
 
         if (range != null) {
             getRequestBuilder.range(range);
-            log.debug("Applying range header to S3 request: {}", range);
         }
 
-        ResponseInputStream<GetObjectResponse> s3Response = s3Client.getObject(getRequestBuilder.build());
-        GetObjectResponse metadata = s3Response.response();
+        GetObjectRequest getRequest = getRequestBuilder.build();
+        return r2CallGuard.execute("GetObject", () -> transferEngine.getObject(getRequest));
+    }
+
+    /**
+     * Extracts the full object size from a {@code Content-Range} header such as
+     * {@code bytes 0-8388607/104857600}, falling back to the response length when
+     * R2 served the whole object.
+     */
+    private static long parseTotalSize(String contentRange, long contentLength) {
+        if (contentRange == null) {
+            return contentLength;
+        }
+        String total = contentRange.substring(contentRange.lastIndexOf('/') + 1);
+        return "*".equals(total) ? contentLength : Long.parseLong(total);
+    }
 
+    private static String resolveFileName(String key, GetObjectResponse metadata) {
         String originalFilename = metadata.metadata().get("original-filename");
         if (originalFilename == null) {
             originalFilename = key.substring(key.lastIndexOf("/") + 1);
         }
-
-        return new FileDownloadResponse(
-                s3Response,
-                originalFilename,
-                metadata.contentType(),
-                metadata.contentLength(),
-                metadata.contentRange());
+        return originalFilename;
     }
 
     /**
@@ -223,7 +351,7 @@ public class FileService {
                 .prefix(prefix)
                 .build();
 
-        ListObjectsV2Response listResponse = s3Client.listObjectsV2(listRequest);
+        ListObjectsV2Response listResponse = r2CallGuard.execute("ListObjectsV2", () -> s3Client.listObjectsV2(listRequest));
 
         // Fetch all user file records from DB for metadata enrichment
         User user = userRepository.findByUsername(userId)
@@ -253,7 +381,8 @@ public class FileService {
                                 .bucket(bucketName)
                                 .key(s3Object.key())
                                 .build();
-                        HeadObjectResponse headResponse = s3Client.headObject(headRequest);
+                        HeadObjectResponse headResponse = r2CallGuard.execute("HeadObject",
+                                () -> s3Client.headObject(headRequest));
                         filename = headResponse.metadata().get("original-filename");
                         if (filename == null) {
                             filename = s3Object.key().substring(s3Object.key().lastIndexOf("/") + 1);
@@ -291,6 +420,10 @@ public class FileService {
     /**
      * Performs a batch deletion of multiple files from R2.
      * Filters the input list to only includes keys owned by the user.
+     * <p>
+     * The metadata is removed right away. The objects, and any multipart uploads still
+     * writing to them, are recorded in the R2 outbox and removed from R2 in the
+     * background once this transaction has committed.
      *
      * @param keys   A list of S3 keys to be deleted.
      * @param userId The user ID requesting the deletion.
@@ -308,41 +441,20 @@ public class FileService {
 
         log.info("Deleting files for user {}: {}", userId, userKeys);
 
-        List<ObjectIdentifier> identifiers = userKeys.stream()
-                .map(key -> ObjectIdentifier.builder().key(key).build())
-                .collect(Collectors.toList());
-
-        DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
-                .bucket(bucketName)
-                .delete(Delete.builder().objects(identifiers).build())
-                .build();
-
-        s3Client.deleteObjects(deleteRequest);
+        // Unmanaged objects have no record but are deleted all the same
+        userKeys.forEach(r2OutboxService::enqueueDelete);
 
         // Batch delete from DB as well
-        // Abort any ongoing multipart uploads for these files to free up S3 space immediately
-        List<FileRecord> records = userKeys.stream()
-                .map(fileRecordRepository::findByS3Key)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
+        // Abort any ongoing multipart uploads for these files to free up S3 space
+        List<FileRecord> records = fileRecordRepository.findAllByS3KeyIn(userKeys);
 
         for (FileRecord record : records) {
             if (record.getUploadSessions() != null) {
                 for (UploadSession session : record.getUploadSessions()) {
                     if (session.getStatus() == UploadStatus.INITIATED ||
                             session.getStatus() == UploadStatus.IN_PROGRESS) {
-                        try {
-                            log.info("Aborting orphaned multipart upload {} for file {}", session.getUploadId(), record.getS3Key());
-                            AbortMultipartUploadRequest abortRequest = AbortMultipartUploadRequest.builder()
-                                    .bucket(bucketName)
-                                    .key(record.getS3Key())
-                                    .uploadId(session.getUploadId())
-                                    .build();
-                            s3Client.abortMultipartUpload(abortRequest);
-                        } catch (Exception e) {
-                            log.warn("Failed to abort multipart upload during deletion: {}", e.getMessage());
-                        }
+                        log.info("Aborting orphaned multipart upload {} for file {}", session.getUploadId(), record.getS3Key());
+                        r2OutboxService.enqueueAbort(record.getS3Key(), session.getUploadId());
                     }
                 }
             }
@@ -363,7 +475,7 @@ public class FileService {
                 .prefix(prefix)
                 .build();
 
-        ListObjectsV2Response listResponse = s3Client.listObjectsV2(listRequest);
+        ListObjectsV2Response listResponse = r2CallGuard.execute("ListObjectsV2", () -> s3Client.listObjectsV2(listRequest));
         return listResponse.contents().stream()
                 .mapToLong(S3Object::size)
                 .sum();
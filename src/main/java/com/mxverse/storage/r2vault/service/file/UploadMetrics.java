@@ -0,0 +1,84 @@
+package com.mxverse.storage.r2vault.service.file;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters for the upload paths.
+ * <p>
+ * {@code uploads.files} and {@code uploads.bytes} count stored files by how they were
+ * uploaded ({@code direct} or {@code multipart}), {@code uploads.sessions} counts multipart
+ * sessions by lifecycle event, and {@code uploads.quota.rejections} counts uploads refused
+ * because they would exceed the user's quota.
+ */
+@Component
+public class UploadMetrics {
+
+    private final Counter directFiles;
+    private final Counter directBytes;
+    private final Counter multipartFiles;
+    private final Counter multipartBytes;
+    private final Counter sessionsInitiated;
+    private final Counter sessionsCompleted;
+    private final Counter sessionsAborted;
+    private final Counter quotaRejections;
+
+    public UploadMetrics(MeterRegistry meterRegistry) {
+        this.directFiles = files(meterRegistry, "direct");
+        this.directBytes = bytes(meterRegistry, "direct");
+        this.multipartFiles = files(meterRegistry, "multipart");
+        this.multipartBytes = bytes(meterRegistry, "multipart");
+        this.sessionsInitiated = sessions(meterRegistry, "initiated");
+        this.sessionsCompleted = sessions(meterRegistry, "completed");
+        this.sessionsAborted = sessions(meterRegistry, "aborted");
+        this.quotaRejections = Counter.builder("uploads.quota.rejections")
+                .description("Uploads refused because they would exceed the storage quota")
+                .register(meterRegistry);
+    }
+
+    public void directUploadStored(long size) {
+        directFiles.increment();
+        directBytes.increment(size);
+    }
+
+    public void sessionInitiated() {
+        sessionsInitiated.increment();
+    }
+
+    public void sessionCompleted(long size) {
+        sessionsCompleted.increment();
+        multipartFiles.increment();
+        multipartBytes.increment(size);
+    }
+
+    public void sessionAborted() {
+        sessionsAborted.increment();
+    }
+
+    public void quotaRejected() {
+        quotaRejections.increment();
+    }
+
+    private static Counter files(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("uploads.files")
+                .description("Files stored")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static Counter bytes(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("uploads.bytes")
+                .description("Bytes of stored files")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static Counter sessions(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("uploads.sessions")
+                .description("Multipart upload sessions by lifecycle event")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+}
@@ -1,39 +1,41 @@
 package com.mxverse.storage.r2vault.service.multipart;
 
 import com.mxverse.storage.r2vault.service.file.FileService;
+import com.mxverse.storage.r2vault.service.file.UploadMetrics;
 
 import com.mxverse.storage.r2vault.exception.FileAccessException;
 import com.mxverse.storage.r2vault.entity.UploadSession;
 import com.mxverse.storage.r2vault.entity.UploadStatus;
 import com.mxverse.storage.r2vault.repository.multipart.UploadSessionRepository;
+import com.mxverse.storage.r2vault.repository.multipart.UploadedPartRepository;
+import com.mxverse.storage.r2vault.service.storage.R2OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+
+import java.time.Instant;
+import java.util.UUID;
 
 /**
  * Service for aborting an ongoing multipart upload session.
  * <p>
- * It notifies Cloudflare R2 to discard uploaded parts and cleans up
- * local session state and reserved quota.
+ * It cleans up local session state and reserved quota, and records in the
+ * R2 outbox that Cloudflare R2 should discard the uploaded parts.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UploadAbortService {
 
-    private final S3Client s3Client;
     private final UploadSessionRepository uploadSessionRepository;
+    private final UploadedPartRepository uploadedPartRepository;
     private final FileService fileService;
-
-    @Value("${r2.bucket}")
-    private String bucketName;
+    private final R2OutboxService r2OutboxService;
+    private final UploadMetrics uploadMetrics;
 
     @Transactional
-    public void abortUpload(String username, String sessionId) {
+    public void abortUpload(String username, UUID sessionId) {
         UploadSession session = uploadSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
@@ -45,28 +47,22 @@ public class UploadAbortService {
             return;
         }
 
-        // 1. Cleanup DB state first (Race protection)
-        session.setStatus(UploadStatus.ABORTED);
-        uploadSessionRepository.save(session);
+        String key = session.getFileRecord().getS3Key();
+        String uploadId = session.getUploadId();
+
+        // 1. Cleanup DB state first (Race protection). Only one of a concurrent abort and
+        // completion makes the transition; the other finds the session already finished.
+        if (uploadSessionRepository.transitionStatus(sessionId, UploadStatus.OPEN, UploadStatus.ABORTED, Instant.now()) == 0) {
+            return;
+        }
+        uploadedPartRepository.deleteAllBySession(session);
 
         // Release ongoing quota reservation
         fileService.decrementOngoingUpload(username, session.getTotalSize());
+        uploadMetrics.sessionAborted();
 
-        // 2. Abort in R2 (outside of main TX if possible, but here it's still in @Transactional)
-        // Note: S3 abort is a cleanup operation, so we do it after committing the status if we want to be safe.
-        // However, if R2 fail, we still want the status to be ABORTED.
-
-        AbortMultipartUploadRequest abortRequest = AbortMultipartUploadRequest.builder()
-                .bucket(bucketName)
-                .key(session.getFileRecord().getS3Key())
-                .uploadId(session.getUploadId())
-                .build();
-
-        log.info("Aborting multipart upload for session {} in R2", sessionId);
-        try {
-            s3Client.abortMultipartUpload(abortRequest);
-        } catch (Exception e) {
-            log.warn("Failed to abort multipart upload in R2 for session {}: {}", sessionId, e.getMessage());
-        }
+        // 2. Abort in R2 once the status change has committed
+        log.info("Queueing abort of multipart upload for session {} in R2", sessionId);
+        r2OutboxService.enqueueAbort(key, uploadId);
     }
 }
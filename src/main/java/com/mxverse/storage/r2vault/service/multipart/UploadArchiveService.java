@@ -0,0 +1,49 @@
+package com.mxverse.storage.r2vault.service.multipart;
+
+import com.mxverse.storage.r2vault.config.UploadArchiveProperties;
+import com.mxverse.storage.r2vault.repository.multipart.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Background service that moves finished upload sessions out of the hot table.
+ * <p>
+ * Completed and aborted sessions are copied to {@code upload_sessions_archive} and
+ * deleted from {@code upload_sessions} once they are older than the retention period,
+ * so the live-session queries and indexes only cover uploads that are still in use.
+ *
+ * @see UploadArchiveProperties
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.uploads.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class UploadArchiveService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadArchiveProperties archiveProperties;
+
+    /**
+     * Runs every hour to archive finished sessions in batches.
+     */
+    @Scheduled(fixedRate = 3600000) // 1 hour
+    public void archiveFinishedSessions() {
+        int batchSize = archiveProperties.getBatchSize();
+        Instant cutoff = Instant.now().minus(archiveProperties.getRetention());
+        long total = 0;
+        int moved;
+        do {
+            moved = uploadSessionRepository.archiveFinishedBatch(cutoff, batchSize);
+            total += moved;
+        } while (moved == batchSize);
+
+        if (total > 0) {
+            log.info("Archived {} finished upload sessions", total);
+        }
+    }
+}
@@ -7,11 +7,14 @@ import com.mxverse.storage.r2vault.exception.FileAccessException;
 import com.mxverse.storage.r2vault.repository.multipart.UploadSessionRepository;
 import com.mxverse.storage.r2vault.repository.multipart.UploadedPartRepository;
 import com.mxverse.storage.r2vault.service.file.FileService;
+import com.mxverse.storage.r2vault.service.file.UploadMetrics;
+import com.mxverse.storage.r2vault.service.storage.R2CallGuard;
+import com.mxverse.storage.r2vault.service.storage.R2OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
@@ -19,13 +22,19 @@ import software.amazon.awssdk.services.s3.model.CompletedPart;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Service for finalizing a multipart upload.
  * <p>
  * It gathers all uploaded parts, sends a completion request to Cloudflare R2,
- * and updates the file status to COMPLETED.
+ * and updates the file status to COMPLETED. The parts are deleted once R2 has
+ * assembled the object; the session keeps their count and total size.
+ * <p>
+ * The completion request is the one R2 call the client waits for, so it stays
+ * synchronous, but it is made between two short transactions rather than inside one:
+ * no connection is held during the round trip.
  */
 @Service
 @RequiredArgsConstructor
@@ -33,15 +42,37 @@ import java.util.stream.Collectors;
 public class UploadCompletionService {
 
     private final S3Client s3Client;
+    private final R2CallGuard r2CallGuard;
+    private final R2OutboxService r2OutboxService;
     private final UploadSessionRepository uploadSessionRepository;
     private final UploadedPartRepository uploadedPartRepository;
     private final FileService fileService;
+    private final UploadMetrics uploadMetrics;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${r2.bucket}")
     private String bucketName;
 
-    @Transactional
-    public void completeUpload(String username, String sessionId) {
+    public void completeUpload(String username, UUID sessionId) {
+        // 1. Validate and collect the parts
+        CompleteMultipartUploadRequest completeRequest =
+                transactionTemplate.execute(status -> prepareCompletion(username, sessionId));
+        if (completeRequest == null) {
+            return;
+        }
+
+        // 2. Complete in R2, outside of any transaction
+        log.info("Completing multipart upload for session {} in R2", sessionId);
+        r2CallGuard.execute("CompleteMultipartUpload", () -> s3Client.completeMultipartUpload(completeRequest));
+
+        // 3. Finalize DB state
+        transactionTemplate.executeWithoutResult(status -> finishCompletion(username, sessionId));
+    }
+
+    /**
+     * @return The R2 completion request, or {@code null} if the session is already completed.
+     */
+    private CompleteMultipartUploadRequest prepareCompletion(String username, UUID sessionId) {
         UploadSession session = uploadSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
@@ -55,17 +86,16 @@ public class UploadCompletionService {
 
         if (session.getStatus() == UploadStatus.COMPLETED) {
             log.info("Session {} already completed.", sessionId);
-            return;
+            return null;
         }
 
-        // 1. Validation: Contiguous parts
+        // Contiguous parts
         List<UploadedPart> parts = uploadedPartRepository.findAllBySessionOrderByPartNumberAsc(session);
         if (parts.size() < session.getTotalParts()) {
             throw new RuntimeException("Cannot complete upload: some parts are missing. Uploaded: "
                     + parts.size() + "/" + session.getTotalParts());
         }
 
-        // 2. Prepare R2 Complete Request
         List<CompletedPart> completedParts = parts.stream()
                 .map(part -> CompletedPart.builder()
                         .partNumber(part.getPartNumber())
@@ -77,22 +107,36 @@ public class UploadCompletionService {
                 .parts(completedParts)
                 .build();
 
-        CompleteMultipartUploadRequest completeRequest = CompleteMultipartUploadRequest.builder()
+        return CompleteMultipartUploadRequest.builder()
                 .bucket(bucketName)
                 .key(session.getFileRecord().getS3Key())
                 .uploadId(session.getUploadId())
                 .multipartUpload(completedMultipartUpload)
                 .build();
+    }
 
-        log.info("Completing multipart upload for session {} in R2", sessionId);
-        s3Client.completeMultipartUpload(completeRequest);
+    private void finishCompletion(String username, UUID sessionId) {
+        int completed = uploadSessionRepository.transitionStatus(
+                sessionId, UploadStatus.OPEN, UploadStatus.COMPLETED, Instant.now());
+        UploadSession session = uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found"));
 
-        // 3. Finalize DB state
-        session.setStatus(UploadStatus.COMPLETED);
-        uploadSessionRepository.save(session);
+        if (completed == 0) {
+            if (session.getStatus() == UploadStatus.ABORTED) {
+                // Aborted while R2 was assembling the object: the abort released the quota,
+                // so the object it produced must not stay behind
+                log.warn("Session {} was aborted during completion, queueing deletion of its object", sessionId);
+                r2OutboxService.enqueueDelete(session.getFileRecord().getS3Key());
+            }
+            // Otherwise a concurrent completion already did the bookkeeping
+            return;
+        }
+
+        uploadedPartRepository.deleteAllBySession(session);
 
         // Release ongoing quota reservation
         fileService.decrementOngoingUpload(username, session.getTotalSize());
+        uploadMetrics.sessionCompleted(session.getTotalSize());
 
         // Note: The FileRecord will need its status updated or similar if we decide 
         // to have a dedicated status field there too. For now, we'll mark the session.
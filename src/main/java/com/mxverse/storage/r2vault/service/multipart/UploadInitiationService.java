@@ -1,6 +1,7 @@
 package com.mxverse.storage.r2vault.service.multipart;
 
 import com.mxverse.storage.r2vault.service.file.FileService;
+import com.mxverse.storage.r2vault.service.file.UploadMetrics;
 
 import com.mxverse.storage.r2vault.dto.multipart.InitiateUploadRequest;
 import com.mxverse.storage.r2vault.dto.multipart.UploadSessionResponse;
@@ -11,6 +12,8 @@ import com.mxverse.storage.r2vault.entity.User;
 import com.mxverse.storage.r2vault.repository.file.FileRecordRepository;
 import com.mxverse.storage.r2vault.repository.multipart.UploadSessionRepository;
 import com.mxverse.storage.r2vault.repository.auth.UserRepository;
+import com.mxverse.storage.r2vault.service.storage.R2CallGuard;
+import com.mxverse.storage.r2vault.util.UuidV7;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,7 +24,6 @@ import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Service responsible for initiating a multipart upload session.
@@ -39,10 +41,12 @@ import java.util.UUID;
 public class UploadInitiationService {
 
     private final S3Client s3Client;
+    private final R2CallGuard r2CallGuard;
     private final FileService fileService;
     private final FileRecordRepository fileRecordRepository;
     private final UploadSessionRepository uploadSessionRepository;
     private final UserRepository userRepository;
+    private final UploadMetrics uploadMetrics;
 
     @Value("${r2.bucket}")
     private String bucketName;
@@ -65,7 +69,7 @@ public class UploadInitiationService {
         if (request.fileName().lastIndexOf(".") != -1) {
             extension = request.fileName().substring(request.fileName().lastIndexOf("."));
         }
-        String s3Key = "users/" + username + "/" + UUID.randomUUID() + extension;
+        String s3Key = "users/" + username + "/" + UuidV7.randomUuid() + extension;
 
         // 3. Create Multipart Upload in R2
         CreateMultipartUploadRequest createRequest = CreateMultipartUploadRequest.builder()
@@ -75,7 +79,8 @@ public class UploadInitiationService {
                 .metadata(Map.of("original-filename", request.fileName()))
                 .build();
 
-        CreateMultipartUploadResponse createResponse = s3Client.createMultipartUpload(createRequest);
+        CreateMultipartUploadResponse createResponse = r2CallGuard.execute("CreateMultipartUpload",
+                () -> s3Client.createMultipartUpload(createRequest));
         String uploadId = createResponse.uploadId();
 
         // 4. Create FileRecord (Pending)
@@ -107,6 +112,7 @@ public class UploadInitiationService {
                 .build();
 
         session = uploadSessionRepository.save(session);
+        uploadMetrics.sessionInitiated();
 
         return new UploadSessionResponse(uploadId, session.getId(), partSize, totalParts);
     }
@@ -1,50 +1,69 @@
 package com.mxverse.storage.r2vault.service.multipart;
 
+import com.mxverse.storage.r2vault.config.ReadYourWritesGuard;
 import com.mxverse.storage.r2vault.entity.UploadSession;
 import com.mxverse.storage.r2vault.entity.UploadStatus;
 import com.mxverse.storage.r2vault.entity.UploadedPart;
 import com.mxverse.storage.r2vault.exception.FileAccessException;
 import com.mxverse.storage.r2vault.repository.multipart.UploadSessionRepository;
 import com.mxverse.storage.r2vault.repository.multipart.UploadedPartRepository;
+import com.mxverse.storage.r2vault.service.storage.BandwidthLimiter;
+import com.mxverse.storage.r2vault.service.storage.R2CallGuard;
+import com.mxverse.storage.r2vault.service.storage.R2TransferEngine;
+import com.mxverse.storage.r2vault.util.OptimisticRetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service for uploading individual parts of a multipart upload.
  * <p>
  * Provides idempotency by checking for already uploaded parts before
  * sending data to Cloudflare R2.
+ * <p>
+ * Parts of one session are uploaded in parallel, so the bookkeeping after each part
+ * must not fail on contention: the session moves to IN_PROGRESS through a conditional
+ * update rather than a versioned save, a part recorded concurrently by a retry of the
+ * same request counts as success, and version conflicts are retried with jitter.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UploadPartService {
 
-    private final S3Client s3Client;
+    private final R2TransferEngine transferEngine;
+    private final R2CallGuard r2CallGuard;
+    private final BandwidthLimiter bandwidthLimiter;
     private final UploadSessionRepository uploadSessionRepository;
     private final UploadedPartRepository uploadedPartRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesGuard readYourWritesGuard;
 
     @Value("${r2.bucket}")
     private String bucketName;
 
-    public String uploadPart(String username, String sessionId, int partNumber, MultipartFile file) {
+    public String uploadPart(String username, UUID sessionId, int partNumber, MultipartFile file) {
         // 1. Transactional check (ownership, status, idempotency)
-        UploadSession session = validateSessionForPart(username, sessionId, partNumber);
+        UploadSession session = transactionTemplate.execute(status -> validateSessionForPart(username, sessionId, partNumber));
 
-        // If part already exists, return its etag immediately
-        Optional<UploadedPart> existing = uploadedPartRepository.findBySessionAndPartNumber(session, partNumber);
+        // If part already exists, return its etag immediately. A retry may follow the first attempt
+        // within the replica lag, so this must not read a replica.
+        Optional<UploadedPart> existing = readYourWritesGuard.onPrimary(
+                () -> uploadedPartRepository.findBySessionAndPartNumber(session, partNumber));
         if (existing.isPresent()) {
             return existing.get().getEtag();
         }
@@ -59,15 +78,15 @@ public class UploadPartService {
                     .build();
 
             log.info("Uploading part {} for session {} (size: {} bytes)", partNumber, sessionId, file.getSize());
-            UploadPartResponse response = s3Client.uploadPart(uploadPartRequest,
-                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            bandwidthLimiter.awaitUpload(username, file.getSize());
+            InputStream content = file.getInputStream();
+            UploadPartResponse response = r2CallGuard.execute("UploadPart",
+                    () -> transferEngine.uploadPart(uploadPartRequest, content, file.getSize()));
 
             String etag = response.eTag();
 
             // 3. Transactional persist
-            saveUploadedPart(session, partNumber, etag, file.getSize());
-
-            return etag;
+            return persistUploadedPart(session, partNumber, etag, file.getSize());
 
         } catch (IOException e) {
             log.error("Failed to read part {} stream for session {}: {}", partNumber, sessionId, e.getMessage());
@@ -75,9 +94,14 @@ public class UploadPartService {
         }
     }
 
+    /**
+     * Checks that the part may be uploaded to the session.
+     *
+     * @return The session, with its user and file record loaded for use outside the transaction.
+     */
     @Transactional
-    public UploadSession validateSessionForPart(String username, String sessionId, int partNumber) {
-        UploadSession session = uploadSessionRepository.findById(sessionId)
+    public UploadSession validateSessionForPart(String username, UUID sessionId, int partNumber) {
+        UploadSession session = uploadSessionRepository.findWithUserAndFileRecordById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
         if (!session.getUser().getUsername().equals(username)) {
@@ -100,8 +124,30 @@ public class UploadPartService {
         return session;
     }
 
-    @Transactional
-    public void saveUploadedPart(UploadSession session, int partNumber, String etag, long size) {
+    /**
+     * Records the part and, for the first part, moves the session to IN_PROGRESS.
+     *
+     * @return The ETag stored for the part; that of a concurrent upload of the same part
+     * if it was recorded first.
+     */
+    private String persistUploadedPart(UploadSession session, int partNumber, String etag, long size) {
+        try {
+            return OptimisticRetry.execute("Recording part " + partNumber + " of session " + session.getId(),
+                    () -> transactionTemplate.execute(status -> saveUploadedPart(session, partNumber, etag, size)));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race on (session_id, part_number) to a concurrent upload of the same part
+            return readYourWritesGuard.onPrimary(() -> uploadedPartRepository.findBySessionAndPartNumber(session, partNumber))
+                    .map(UploadedPart::getEtag)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private String saveUploadedPart(UploadSession session, int partNumber, String etag, long size) {
+        Optional<UploadedPart> existing = uploadedPartRepository.findBySessionAndPartNumber(session, partNumber);
+        if (existing.isPresent()) {
+            return existing.get().getEtag();
+        }
+
         UploadedPart uploadedPart = UploadedPart.builder()
                 .session(session)
                 .partNumber(partNumber)
@@ -110,10 +156,12 @@ public class UploadPartService {
                 .build();
         uploadedPartRepository.save(uploadedPart);
 
-        // Update session status to IN_PROGRESS if first part
+        // Update session status to IN_PROGRESS if first part. Parallel first parts all get
+        // here; the conditional update lets one of them win instead of failing the others.
         if (session.getStatus() == UploadStatus.INITIATED) {
-            session.setStatus(UploadStatus.IN_PROGRESS);
-            uploadSessionRepository.save(session);
+            uploadSessionRepository.transitionStatus(session.getId(), Set.of(UploadStatus.INITIATED),
+                    UploadStatus.IN_PROGRESS, Instant.now());
         }
+        return etag;
     }
 }
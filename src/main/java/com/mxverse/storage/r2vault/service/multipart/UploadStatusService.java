@@ -1,5 +1,6 @@
 package com.mxverse.storage.r2vault.service.multipart;
 
+import com.mxverse.storage.r2vault.config.ReadYourWritesGuard;
 import com.mxverse.storage.r2vault.dto.multipart.UploadStatusResponse;
 import com.mxverse.storage.r2vault.dto.multipart.UploadedPartDto;
 import com.mxverse.storage.r2vault.entity.UploadSession;
@@ -13,13 +14,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Service for retrieving the current status of a multipart upload session.
  * <p>
  * Used by clients to resume interrupted uploads by identifying
- * which parts have already been successfully uploaded.
+ * which parts have already been successfully uploaded. Reads go to the primary: parts
+ * recorded moments ago, possibly by another instance, must not be reported missing.
  */
 @Service
 @RequiredArgsConstructor
@@ -28,9 +31,15 @@ public class UploadStatusService {
 
     private final UploadSessionRepository uploadSessionRepository;
     private final UploadedPartRepository uploadedPartRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
 
     @Transactional(readOnly = true)
-    public UploadStatusResponse getUploadStatus(String username, String sessionId) {
+    public UploadStatusResponse getUploadStatus(String username, UUID sessionId) {
+        // The connection is acquired at the first statement, inside the pinned read
+        return readYourWritesGuard.onPrimary(() -> loadUploadStatus(username, sessionId));
+    }
+
+    private UploadStatusResponse loadUploadStatus(String username, UUID sessionId) {
         UploadSession session = uploadSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
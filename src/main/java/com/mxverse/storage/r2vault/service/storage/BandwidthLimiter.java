@@ -0,0 +1,80 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mxverse.storage.r2vault.config.RateLimitProperties;
+import com.mxverse.storage.r2vault.util.ThrottledInputStream;
+import com.mxverse.storage.r2vault.util.TokenBucket;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user byte-rate limits for uploads and downloads.
+ * <p>
+ * All concurrent transfers of a user in the same direction share one bucket, so opening
+ * more connections does not raise the user's rate. Each bucket holds one second's worth
+ * of bytes as burst.
+ * <p>
+ * Uploads are already buffered by the time they reach R2, so they wait for their whole
+ * size up front instead of being shaped while the guarded R2 call runs; otherwise the
+ * throttle would hold a {@link R2CallGuard} permit and count as R2 latency.
+ */
+@Component
+public class BandwidthLimiter {
+
+    private final RateLimitProperties properties;
+    private final Cache<String, TokenBucket> buckets;
+
+    public BandwidthLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * Blocks until the user's upload rate allows {@code bytes} more, if a rate is configured.
+     * Call before the upload is handed to R2.
+     *
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public void awaitUpload(String username, long bytes) throws InterruptedIOException {
+        long bytesPerSecond = properties.getBandwidth().getUploadPerSecond().toBytes();
+        if (!properties.isEnabled() || bytesPerSecond <= 0 || bytes <= 0) {
+            return;
+        }
+        long waitNanos = bucket("upload|" + username, bytesPerSecond).reserve(bytes);
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while throttling upload");
+        }
+    }
+
+    /**
+     * @return The download stream, throttled to the user's download rate if one is configured.
+     */
+    public InputStream throttleDownload(String username, InputStream content) {
+        return throttle("download|" + username, properties.getBandwidth().getDownloadPerSecond().toBytes(), content);
+    }
+
+    private InputStream throttle(String key, long bytesPerSecond, InputStream content) {
+        if (!properties.isEnabled() || bytesPerSecond <= 0) {
+            return content;
+        }
+        return new ThrottledInputStream(content, bucket(key, bytesPerSecond));
+    }
+
+    private TokenBucket bucket(String key, long bytesPerSecond) {
+        return buckets.get(key, k -> new TokenBucket(bytesPerSecond, bytesPerSecond));
+    }
+}
@@ -0,0 +1,202 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import software.amazon.awssdk.http.Abortable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link InputStream} that reassembles an object from several concurrent ranged GETs.
+ * <p>
+ * The first chunk is streamed straight from the probe response while up to {@code window}
+ * following chunks are fetched ahead on the transfer executor. Chunks are handed to the
+ * reader strictly in order, and a new fetch is only scheduled once the reader has consumed
+ * a buffered chunk, so memory per download is bounded to {@code (window + 1) * chunkSize}
+ * (the chunks ahead plus the one being read) and a slow client naturally throttles the
+ * upstream fetches.
+ * <p>
+ * Closing the stream early aborts the GETs still transferring. Cancelling their futures
+ * alone would not interrupt a blocking read, and closing an HTTP response drains it first.
+ */
+public class ParallelRangeInputStream extends InputStream {
+
+    /**
+     * Opens a stream over the inclusive byte range {@code [start, end]} of the object.
+     */
+    @FunctionalInterface
+    public interface RangeFetcher {
+        InputStream fetch(long start, long end) throws IOException;
+    }
+
+    private final RangeFetcher fetcher;
+    private final Executor executor;
+    private final long totalSize;
+    private final long chunkSize;
+    private final int window;
+
+    private final Deque<Chunk> inFlight = new ArrayDeque<>();
+    private long nextChunkStart;
+    private InputStream current;
+    private boolean closed;
+
+    /**
+     * @param firstChunk       Stream of the already opened first chunk.
+     * @param firstChunkLength Number of bytes the first chunk covers.
+     * @param totalSize        Total size of the object in bytes.
+     * @param chunkSize        Size of each subsequent ranged GET.
+     * @param window           Maximum number of chunks fetched ahead of the reader.
+     * @param fetcher          Opens ranged GETs against the storage provider.
+     * @param executor         Executor on which chunk fetches run.
+     */
+    public ParallelRangeInputStream(InputStream firstChunk, long firstChunkLength, long totalSize,
+                                    long chunkSize, int window, RangeFetcher fetcher, Executor executor) {
+        this.current = firstChunk;
+        this.nextChunkStart = firstChunkLength;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.window = window;
+        this.fetcher = fetcher;
+        this.executor = executor;
+        scheduleAhead();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (current == null && !advance()) {
+                return -1;
+            }
+            int n = current.read(b, off, len);
+            if (n != -1) {
+                return n;
+            }
+            current.close();
+            current = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        inFlight.forEach(Chunk::abort);
+        inFlight.clear();
+        if (current != null) {
+            abort(current);
+            current = null;
+        }
+    }
+
+    /**
+     * Keeps the read-ahead window full without exceeding the object size.
+     */
+    private void scheduleAhead() {
+        while (inFlight.size() < window && nextChunkStart < totalSize) {
+            long start = nextChunkStart;
+            long end = Math.min(start + chunkSize, totalSize) - 1;
+            Chunk chunk = new Chunk();
+            chunk.data = CompletableFuture.supplyAsync(() -> fetchChunk(chunk, start, end), executor);
+            inFlight.addLast(chunk);
+            nextChunkStart = end + 1;
+        }
+    }
+
+    /**
+     * Waits for the next chunk in order and makes it the current one.
+     *
+     * @return {@code false} once every chunk has been consumed.
+     */
+    private boolean advance() throws IOException {
+        Chunk next = inFlight.pollFirst();
+        if (next == null) {
+            return false;
+        }
+        try {
+            current = new ByteArrayInputStream(next.data.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for download chunk");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to fetch download chunk", e.getCause());
+        }
+        scheduleAhead();
+        return true;
+    }
+
+    private byte[] fetchChunk(Chunk chunk, long start, long end) {
+        try (InputStream in = fetcher.fetch(start, end)) {
+            chunk.stream = in;
+            if (chunk.aborted) {
+                abort(in);
+                throw new IOException("Download closed");
+            }
+            byte[] data = in.readAllBytes();
+            chunk.stream = null;
+            long expected = end - start + 1;
+            if (data.length != expected) {
+                throw new IOException(String.format("Short read for range %d-%d: expected %d bytes, got %d",
+                        start, end, expected, data.length));
+            }
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void abort(InputStream in) {
+        if (in instanceof Abortable abortable) {
+            abortable.abort();
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * A read-ahead chunk and, while it is being fetched, the response it is read from.
+     */
+    private static final class Chunk {
+
+        private CompletableFuture<byte[]> data;
+        private volatile InputStream stream;
+        private volatile boolean aborted;
+
+        /**
+         * Skips the fetch if it has not started and aborts its response if it has.
+         */
+        private void abort() {
+            aborted = true;
+            data.cancel(true);
+            InputStream in = stream;
+            if (in != null) {
+                ParallelRangeInputStream.abort(in);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import com.mxverse.storage.r2vault.exception.ServiceUnavailableException;
+import com.mxverse.storage.r2vault.util.AbortScope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Shared guard around every R2 call made by the file and multipart services.
+ * <p>
+ * Combines two mechanisms so that a slow or throttling R2 sheds load instead of
+ * pinning every request thread on the S3 client:
+ * <ul>
+ *     <li><b>Adaptive concurrency limit (AIMD)</b>: the number of concurrent R2 calls is
+ *     capped. The cap grows by one while calls are fast and the cap is being used, and
+ *     shrinks multiplicatively when an operation's short-term latency exceeds its
+ *     long-term latency by {@code latencyTolerance}, or when R2 throttles. Uploads
+ *     ({@code PutObject}, {@code UploadPart}) take as long as their body, so their latency
+ *     is not used as a congestion signal; their failures still are.</li>
+ *     <li><b>Circuit breaker</b>: after {@code failureThreshold} consecutive failures the
+ *     circuit opens and calls fail fast for {@code openDuration}; a single trial call then
+ *     decides whether it closes again.</li>
+ * </ul>
+ * Rejected calls surface as {@link ServiceUnavailableException} (503 + Retry-After).
+ * For streaming downloads the permit covers the call up to the response headers.
+ */
+@Component
+@Slf4j
+public class R2CallGuard {
+
+    private static final double SHORT_TERM_WEIGHT = 0.2;
+    private static final double LONG_TERM_WEIGHT = 0.01;
+    private static final Set<String> BODY_TRANSFER_OPERATIONS = Set.of("PutObject", "UploadPart");
+
+    private enum CircuitState { CLOSED, HALF_OPEN, OPEN }
+
+    private final R2Properties.Guard settings;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit = new AtomicInteger();
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+
+    private final AtomicReference<CircuitState> circuitState = new AtomicReference<>(CircuitState.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAtNanos;
+
+    public R2CallGuard(R2Properties r2Properties, MeterRegistry meterRegistry) {
+        this.settings = r2Properties.getGuard();
+        this.meterRegistry = meterRegistry;
+        this.limit.set(settings.getInitialLimit());
+
+        Gauge.builder("r2.guard.limit", limit, AtomicInteger::get)
+                .description("Current adaptive concurrency limit for R2 calls")
+                .register(meterRegistry);
+        Gauge.builder("r2.guard.inflight", inFlight, AtomicInteger::get)
+                .description("R2 calls currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("r2.guard.circuit.state", circuitState, state -> state.get().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs an R2 call under the concurrency limit and circuit breaker.
+     *
+     * @param operation The R2 operation name, used for latency tracking and metrics.
+     * @param call      The call to execute.
+     * @return The call's result.
+     * @throws ServiceUnavailableException if the call is shed.
+     */
+    public <T> T execute(String operation, Supplier<T> call) {
+        if (!settings.isEnabled()) {
+            return call.get();
+        }
+
+        boolean trial = admitThroughCircuit(operation);
+        if (!tryAcquire()) {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+            reject(operation, "limit");
+            throw new ServiceUnavailableException("Storage is busy, please retry shortly", 1);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            onSuccess(operation, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            onFailure(operation, e, System.nanoTime() - start);
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            if (trial) {
+                trialInFlight.set(false);
+            }
+        }
+    }
+
+    /**
+     * Checks the circuit and decides whether this call is the half-open trial.
+     *
+     * @return {@code true} if this call is the single trial allowed while half-open.
+     */
+    private boolean admitThroughCircuit(String operation) {
+        CircuitState state = circuitState.get();
+        if (state == CircuitState.OPEN) {
+            long openForNanos = System.nanoTime() - openedAtNanos;
+            if (openForNanos < settings.getOpenDuration().toNanos()) {
+                reject(operation, "circuit_open");
+                throw new ServiceUnavailableException("Storage is temporarily unavailable, please retry shortly",
+                        retryAfterSeconds(openForNanos));
+            }
+            circuitState.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN);
+            state = CircuitState.HALF_OPEN;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (!trialInFlight.compareAndSet(false, true)) {
+                reject(operation, "circuit_open");
+                throw new ServiceUnavailableException("Storage is temporarily unavailable, please retry shortly", 1);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void onSuccess(String operation, long latencyNanos) {
+        record(operation, "success", latencyNanos);
+        consecutiveFailures.set(0);
+        if (circuitState.compareAndSet(CircuitState.HALF_OPEN, CircuitState.CLOSED)) {
+            log.info("R2 circuit closed after successful trial call ({})", operation);
+        }
+        adjustLimit(operation, latencyNanos, false);
+    }
+
+    private void onFailure(String operation, RuntimeException e, long latencyNanos) {
+        if (AbortScope.isCurrentAborted()) {
+            // Abandoned by the caller, e.g. a hedged GET that lost; says nothing about R2 health
+            record(operation, "aborted", latencyNanos);
+            return;
+        }
+        boolean throttled = isThrottling(e);
+        if (!throttled && !isServerOrNetworkFailure(e)) {
+            // Client errors such as 404 or 403 say nothing about R2 health
+            record(operation, "client_error", latencyNanos);
+            consecutiveFailures.set(0);
+            circuitState.compareAndSet(CircuitState.HALF_OPEN, CircuitState.CLOSED);
+            return;
+        }
+
+        record(operation, throttled ? "throttled" : "error", latencyNanos);
+        adjustLimit(operation, latencyNanos, true);
+
+        if (circuitState.get() == CircuitState.HALF_OPEN) {
+            open("trial call " + operation + " failed: " + e.getMessage());
+        } else if (consecutiveFailures.incrementAndGet() >= settings.getFailureThreshold()) {
+            open(consecutiveFailures.get() + " consecutive failures, last: " + e.getMessage());
+        }
+    }
+
+    private void open(String reason) {
+        openedAtNanos = System.nanoTime();
+        if (circuitState.getAndSet(CircuitState.OPEN) != CircuitState.OPEN) {
+            log.warn("R2 circuit opened for {}: {}", settings.getOpenDuration(), reason);
+        }
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * AIMD update: multiplicative decrease on congestion or throttling, additive increase
+     * while the limit is actually being used. Runs on every call, so it only uses atomics.
+     */
+    private void adjustLimit(String operation, long latencyNanos, boolean dropped) {
+        boolean congested = !BODY_TRANSFER_OPERATIONS.contains(operation)
+                && latencies.computeIfAbsent(operation, k -> new LatencyTracker())
+                .update(latencyNanos, settings.getLatencyTolerance());
+
+        if (dropped || congested) {
+            int previous = limit.getAndUpdate(this::reduce);
+            int reduced = reduce(previous);
+            if (reduced < previous) {
+                log.debug("Reducing R2 concurrency limit {} -> {} ({}: {})", previous, reduced, operation,
+                        dropped ? "throttled" : "latency");
+            }
+        } else if (inFlight.get() * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(settings.getMaxLimit(), current + 1));
+        }
+    }
+
+    private int reduce(int current) {
+        return Math.max(settings.getMinLimit(), (int) (current * settings.getBackoffRatio()));
+    }
+
+    private void record(String operation, String outcome, long latencyNanos) {
+        Timer.builder("r2.guard.calls")
+                .description("R2 calls executed through the guard")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void reject(String operation, String reason) {
+        Counter.builder("r2.guard.rejections")
+                .description("R2 calls shed by the guard")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private long retryAfterSeconds(long openForNanos) {
+        long remaining = settings.getOpenDuration().toNanos() - openForNanos;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining) + 1);
+    }
+
+    private static boolean isThrottling(RuntimeException e) {
+        if (e instanceof SdkServiceException serviceException) {
+            return serviceException.isThrottlingException()
+                    || serviceException.statusCode() == 503
+                    || serviceException.statusCode() == 429;
+        }
+        return false;
+    }
+
+    private static boolean isServerOrNetworkFailure(RuntimeException e) {
+        if (e instanceof SdkServiceException serviceException) {
+            return serviceException.statusCode() >= 500;
+        }
+        return e instanceof SdkClientException;
+    }
+
+    /**
+     * Short- and long-term exponential moving averages of one operation's latency,
+     * updated together with a compare-and-set.
+     */
+    private static final class LatencyTracker {
+
+        private final AtomicReference<Averages> averages = new AtomicReference<>();
+
+        /**
+         * @return {@code true} if the short-term latency signals congestion.
+         */
+        private boolean update(long latencyNanos, double tolerance) {
+            Averages updated = averages.updateAndGet(current -> current == null
+                    ? new Averages(latencyNanos, latencyNanos)
+                    : new Averages(current.shortTerm() + SHORT_TERM_WEIGHT * (latencyNanos - current.shortTerm()),
+                    current.longTerm() + LONG_TERM_WEIGHT * (latencyNanos - current.longTerm())));
+            return updated.shortTerm() > updated.longTerm() * tolerance;
+        }
+
+        private record Averages(double shortTerm, double longTerm) {
+        }
+    }
+}
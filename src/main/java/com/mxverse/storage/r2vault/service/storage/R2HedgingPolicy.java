@@ -0,0 +1,206 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import com.mxverse.storage.r2vault.util.AbortScope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedging policy for R2 GETs, aimed at the download time-to-first-byte tail.
+ * <p>
+ * The primary GET runs on the calling thread. If it has not returned its response headers
+ * within the configured latency percentile of recent GETs, a duplicate GET is sent from the
+ * policy's own small pool and whichever response arrives first is used. A winning hedge
+ * aborts the primary's request through its {@link AbortScope}, which releases the blocked
+ * caller; a losing response is aborted as soon as it arrives, which closes its connection
+ * instead of returning it to the pool half-read. Latencies are measured from the start of
+ * the call, as the client sees them.
+ * <p>
+ * Hedges are capped by a token budget: every primary request earns
+ * {@code r2.hedging.budget-ratio} of a hedge, so at most that fraction of extra GETs is
+ * ever sent to R2, plus a small burst allowance.
+ */
+@Component
+public class R2HedgingPolicy {
+
+    /**
+     * Budget tokens are kept in thousandths of a hedge so the ratio can be fractional.
+     */
+    private static final long TOKEN_SCALE = 1000;
+    private static final int MIN_SAMPLES = 100;
+    private static final int RECOMPUTE_INTERVAL = 100;
+
+    private final R2Properties.Hedging settings;
+    private final ScheduledExecutorService hedgeExecutor;
+
+    private final long[] samples;
+    private int sampleCount;
+    private int sampleIndex;
+    private volatile long hedgeDelayNanos = -1;
+
+    private final AtomicLong budgetTokens = new AtomicLong();
+    private final long maxBudgetTokens;
+
+    private final Counter hedgesIssued;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+
+    public R2HedgingPolicy(R2Properties r2Properties, MeterRegistry meterRegistry) {
+        this.settings = r2Properties.getHedging();
+        this.hedgeExecutor = Executors.newScheduledThreadPool(settings.getExecutorThreads(),
+                Thread.ofPlatform().name("r2-hedge-", 0).daemon(true).factory());
+        this.samples = new long[settings.getSampleWindow()];
+        this.maxBudgetTokens = settings.getBudgetBurst() * TOKEN_SCALE;
+        this.budgetTokens.set(maxBudgetTokens);
+
+        this.hedgesIssued = Counter.builder("r2.hedge.issued")
+                .description("Duplicate GETs sent after the hedge delay")
+                .register(meterRegistry);
+        this.hedgeWins = Counter.builder("r2.hedge.wins")
+                .description("Hedged GETs whose duplicate responded first")
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("r2.hedge.budget.exhausted")
+                .description("Slow GETs that were not hedged because the budget was spent")
+                .register(meterRegistry);
+        Gauge.builder("r2.hedge.budget.available", budgetTokens, tokens -> (double) tokens.get() / TOKEN_SCALE)
+                .description("Hedges currently available in the budget")
+                .register(meterRegistry);
+        Gauge.builder("r2.hedge.delay", () -> hedgeDelayNanos < 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos))
+                .description("Current hedge delay in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    /**
+     * Executes a GET, hedging it if it is slower than the configured percentile.
+     *
+     * @param call Opens the object; invoked once, or twice when hedged.
+     * @return The first response to arrive.
+     */
+    public <R> ResponseInputStream<R> execute(Supplier<ResponseInputStream<R>> call) {
+        if (!settings.isEnabled()) {
+            return call.get();
+        }
+
+        earnBudget();
+        long start = System.nanoTime();
+        long delay = hedgeDelayNanos;
+        if (delay < 0) {
+            // Not enough samples yet to know what "slow" means
+            ResponseInputStream<R> response = call.get();
+            recordLatency(System.nanoTime() - start);
+            return response;
+        }
+
+        Race<R> race = new Race<>();
+        ScheduledFuture<?> timer = hedgeExecutor.schedule(() -> hedge(race, call), delay, TimeUnit.NANOSECONDS);
+        ResponseInputStream<R> response;
+        try {
+            response = race.primary.run(call);
+        } catch (RuntimeException e) {
+            if (!timer.cancel(false)) {
+                // The hedge was sent; it may have won, which is also why the primary failed
+                race.hedgeDone.join();
+                if (race.winner.isDone()) {
+                    recordLatency(System.nanoTime() - start);
+                    return race.winner.join();
+                }
+            }
+            throw e;
+        }
+
+        timer.cancel(false);
+        if (!race.winner.complete(response)) {
+            response.abort();
+            response = race.winner.join();
+        }
+        recordLatency(System.nanoTime() - start);
+        return response;
+    }
+
+    /**
+     * Sends the duplicate GET unless the primary has already answered or the budget is spent.
+     */
+    private <R> void hedge(Race<R> race, Supplier<ResponseInputStream<R>> call) {
+        try {
+            if (race.winner.isDone()) {
+                return;
+            }
+            if (!spendBudget()) {
+                budgetExhausted.increment();
+                return;
+            }
+            hedgesIssued.increment();
+            ResponseInputStream<R> response = call.get();
+            if (race.winner.complete(response)) {
+                hedgeWins.increment();
+                race.primary.abort();
+            } else {
+                response.abort();
+            }
+        } catch (RuntimeException e) {
+            // The primary's outcome decides the call
+        } finally {
+            race.hedgeDone.complete(null);
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        synchronized (samples) {
+            samples[sampleIndex] = latencyNanos;
+            sampleIndex = (sampleIndex + 1) % samples.length;
+            sampleCount++;
+            if (sampleCount >= MIN_SAMPLES && sampleCount % RECOMPUTE_INTERVAL == 0) {
+                int size = Math.min(sampleCount, samples.length);
+                long[] sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                int index = (int) Math.min(size - 1, Math.ceil(settings.getPercentile() * size) - 1);
+                hedgeDelayNanos = Math.max(settings.getMinDelay().toNanos(), sorted[Math.max(0, index)]);
+            }
+        }
+    }
+
+    private void earnBudget() {
+        long earned = (long) (settings.getBudgetRatio() * TOKEN_SCALE);
+        budgetTokens.updateAndGet(tokens -> Math.min(maxBudgetTokens, tokens + earned));
+    }
+
+    private boolean spendBudget() {
+        while (true) {
+            long tokens = budgetTokens.get();
+            if (tokens < TOKEN_SCALE) {
+                return false;
+            }
+            if (budgetTokens.compareAndSet(tokens, tokens - TOKEN_SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * State shared by a primary GET and its hedge.
+     */
+    private static final class Race<R> {
+        private final AbortScope primary = new AbortScope();
+        private final CompletableFuture<ResponseInputStream<R>> winner = new CompletableFuture<>();
+        private final CompletableFuture<Void> hedgeDone = new CompletableFuture<>();
+    }
+}
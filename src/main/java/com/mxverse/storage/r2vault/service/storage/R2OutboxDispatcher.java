@@ -0,0 +1,128 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import com.mxverse.storage.r2vault.entity.R2OutboxEvent;
+import com.mxverse.storage.r2vault.entity.R2OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Background service that carries out the R2 side effects recorded in the outbox.
+ * <p>
+ * Each round claims a batch of due events, sends all object deletes of the batch as one
+ * {@code DeleteObjects} request and every abort as its own request, and then removes
+ * the events that succeeded. Failed events are retried with backoff by
+ * {@link R2OutboxService#fail}. No transaction is open while R2 is called.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class R2OutboxDispatcher {
+
+    private final S3Client s3Client;
+    private final R2CallGuard r2CallGuard;
+    private final R2OutboxService outboxService;
+    private final R2Properties r2Properties;
+
+    @Value("${r2.bucket}")
+    private String bucketName;
+
+    /**
+     * Runs every 5 seconds and keeps claiming batches until no full batch is due.
+     */
+    @Scheduled(fixedDelay = 5000) // 5 seconds
+    public void dispatchPending() {
+        int batchSize = r2Properties.getOutbox().getBatchSize();
+        List<R2OutboxEvent> events;
+        do {
+            events = outboxService.claimBatch();
+            if (!events.isEmpty()) {
+                dispatch(events);
+            }
+        } while (events.size() == batchSize);
+    }
+
+    private void dispatch(List<R2OutboxEvent> events) {
+        Map<R2OutboxEventType, List<R2OutboxEvent>> byType = events.stream()
+                .collect(Collectors.groupingBy(R2OutboxEvent::getType));
+        List<UUID> done = new ArrayList<>();
+
+        deleteObjects(byType.getOrDefault(R2OutboxEventType.DELETE_OBJECT, List.of()), done);
+        for (R2OutboxEvent abort : byType.getOrDefault(R2OutboxEventType.ABORT_MULTIPART_UPLOAD, List.of())) {
+            abortMultipartUpload(abort, done);
+        }
+
+        outboxService.complete(done);
+        log.debug("Dispatched {} of {} R2 outbox events", done.size(), events.size());
+    }
+
+    private void deleteObjects(List<R2OutboxEvent> deletes, List<UUID> done) {
+        if (deletes.isEmpty()) {
+            return;
+        }
+        List<ObjectIdentifier> identifiers = deletes.stream()
+                .map(R2OutboxEvent::getS3Key)
+                .distinct()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+        DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(identifiers).quiet(true).build())
+                .build();
+
+        DeleteObjectsResponse response;
+        try {
+            response = r2CallGuard.execute("DeleteObjects", () -> s3Client.deleteObjects(deleteRequest));
+        } catch (Exception e) {
+            deletes.forEach(event -> outboxService.fail(event.getId(), e.getMessage()));
+            return;
+        }
+
+        // In quiet mode only the keys that could not be deleted are reported
+        Map<String, String> errors = response.hasErrors()
+                ? response.errors().stream().collect(Collectors.toMap(S3Error::key, S3Error::message, (a, b) -> a))
+                : Map.of();
+        for (R2OutboxEvent event : deletes) {
+            String error = errors.get(event.getS3Key());
+            if (error == null) {
+                done.add(event.getId());
+            } else {
+                outboxService.fail(event.getId(), error);
+            }
+        }
+    }
+
+    private void abortMultipartUpload(R2OutboxEvent event, List<UUID> done) {
+        AbortMultipartUploadRequest abortRequest = AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(event.getS3Key())
+                .uploadId(event.getUploadId())
+                .build();
+        try {
+            r2CallGuard.execute("AbortMultipartUpload", () -> s3Client.abortMultipartUpload(abortRequest));
+            done.add(event.getId());
+        } catch (NoSuchUploadException e) {
+            // Already aborted, completed or expired in R2: nothing left to clean up
+            done.add(event.getId());
+        } catch (Exception e) {
+            outboxService.fail(event.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import com.mxverse.storage.r2vault.entity.R2OutboxEvent;
+import com.mxverse.storage.r2vault.entity.R2OutboxEventType;
+import com.mxverse.storage.r2vault.repository.storage.R2OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records R2 side effects in the outbox table and manages their lifecycle.
+ * <p>
+ * Callers enqueue inside their own transaction, so an event exists exactly when the
+ * database change it belongs to has committed, and no R2 round trip is made while a
+ * connection is held. {@link R2OutboxDispatcher} claims due events in short transactions,
+ * calls R2 outside of them and reports back through {@link #complete} and {@link #fail}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class R2OutboxService {
+
+    private final R2OutboxRepository outboxRepository;
+    private final R2Properties r2Properties;
+
+    /**
+     * Records the deletion of an object.
+     *
+     * @param key The key of the object to delete.
+     */
+    @Transactional
+    public void enqueueDelete(String key) {
+        outboxRepository.save(R2OutboxEvent.builder()
+                .type(R2OutboxEventType.DELETE_OBJECT)
+                .s3Key(key)
+                .build());
+    }
+
+    /**
+     * Records the abort of a multipart upload.
+     *
+     * @param key      The key the upload was writing to.
+     * @param uploadId The R2 upload id.
+     */
+    @Transactional
+    public void enqueueAbort(String key, String uploadId) {
+        outboxRepository.save(R2OutboxEvent.builder()
+                .type(R2OutboxEventType.ABORT_MULTIPART_UPLOAD)
+                .s3Key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
+    /**
+     * Claims the next batch of due events for this instance by pushing them out by the
+     * claim lease. Events claimed by another instance are skipped.
+     *
+     * @return The claimed events, oldest first.
+     */
+    @Transactional
+    public List<R2OutboxEvent> claimBatch() {
+        R2Properties.Outbox settings = r2Properties.getOutbox();
+        Instant now = Instant.now();
+        List<R2OutboxEvent> events = outboxRepository.findDueForUpdate(
+                now, settings.getMaxAttempts(), Limit.of(settings.getBatchSize()));
+        Instant leaseEnd = now.plus(settings.getClaimLease());
+        events.forEach(event -> event.setNextAttemptAt(leaseEnd));
+        return events;
+    }
+
+    /**
+     * Removes events whose side effect R2 has accepted.
+     *
+     * @param ids The ids of the completed events.
+     */
+    @Transactional
+    public void complete(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    /**
+     * Schedules a failed event for retry with exponential backoff, or gives up on it after
+     * the configured number of attempts.
+     *
+     * @param id    The id of the failed event.
+     * @param error What went wrong.
+     */
+    @Transactional
+    public void fail(UUID id, String error) {
+        outboxRepository.findById(id).ifPresent(event -> {
+            R2Properties.Outbox settings = r2Properties.getOutbox();
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error);
+            event.setNextAttemptAt(Instant.now().plus(backoff(attempts, settings)));
+
+            if (attempts >= settings.getMaxAttempts()) {
+                log.error("Giving up on R2 outbox event {} ({} {}) after {} attempts: {}",
+                        id, event.getType(), event.getS3Key(), attempts, error);
+            } else {
+                log.warn("R2 outbox event {} ({} {}) failed, retrying at {}: {}",
+                        id, event.getType(), event.getS3Key(), event.getNextAttemptAt(), error);
+            }
+        });
+    }
+
+    private static Duration backoff(int attempts, R2Properties.Outbox settings) {
+        Duration maxBackoff = settings.getMaxBackoff();
+        // Doubling past the cap would overflow long before the attempt limit is reached
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = settings.getInitialBackoff().multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -0,0 +1,421 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Single-flight coalescing of concurrent R2 reads for the same key and range.
+ * <p>
+ * The first request for a key/range becomes the leader and opens the upstream GET. Requests
+ * for the same key/range that arrive while that GET is in flight share it instead of opening
+ * their own. The body is fanned out through a bounded ring buffer: whichever reader needs
+ * bytes that are not buffered yet pulls the next block from R2, so the flight moves at the
+ * pace of its fastest reader. A reader that falls more than the buffer size behind has
+ * lost bytes it still needs; it leaves the flight and continues from its own position on a
+ * private ranged GET, so one slow client never holds back the others.
+ * <p>
+ * A request can only join while the buffer still holds the start of the body. Nothing is
+ * kept once the last reader finishes, so this is not a cache.
+ */
+@Component
+@Slf4j
+public class R2ReadCoalescer {
+
+    private static final int FETCH_BLOCK_SIZE = 64 * 1024;
+    private static final int EVICTED = -2;
+
+    private final R2Properties.Coalescing settings;
+    private final Map<FlightKey, CompletableFuture<Flight>> flights = new ConcurrentHashMap<>();
+
+    private final Counter flightsStarted;
+    private final Counter readersJoined;
+    private final Counter readersEvicted;
+
+    public R2ReadCoalescer(R2Properties r2Properties, MeterRegistry meterRegistry) {
+        this.settings = r2Properties.getCoalescing();
+
+        this.flightsStarted = Counter.builder("r2.coalesce.flights")
+                .description("Upstream GETs opened by the download path")
+                .register(meterRegistry);
+        this.readersJoined = Counter.builder("r2.coalesce.joins")
+                .description("Downloads served from another request's in-flight GET")
+                .register(meterRegistry);
+        this.readersEvicted = Counter.builder("r2.coalesce.evictions")
+                .description("Downloads that fell a buffer behind and reopened their own GET")
+                .register(meterRegistry);
+        Gauge.builder("r2.coalesce.inflight", flights, Map::size)
+                .description("Coalesced GETs currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens an object, sharing an identical in-flight GET when there is one.
+     *
+     * @param key   The object key.
+     * @param range The HTTP range, or {@code null} for the whole object.
+     * @param fetch Opens a GET for the given range: the upstream GET when this request leads
+     *              a new flight, or the rest of the body for a reader that fell behind.
+     * @return A stream of the object's body, private to the caller.
+     */
+    public ResponseInputStream<GetObjectResponse> open(String key, String range,
+                                                       Function<String, ResponseInputStream<GetObjectResponse>> fetch) {
+        if (!settings.isEnabled()) {
+            return fetch.apply(range);
+        }
+
+        FlightKey flightKey = new FlightKey(key, range);
+        while (true) {
+            CompletableFuture<Flight> slot = new CompletableFuture<>();
+            CompletableFuture<Flight> existing = flights.putIfAbsent(flightKey, slot);
+            if (existing == null) {
+                return lead(flightKey, slot, fetch);
+            }
+
+            Flight flight;
+            try {
+                flight = existing.join();
+            } catch (CompletionException e) {
+                // The leader's GET failed; report the same failure instead of retrying it
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+
+            ResponseInputStream<GetObjectResponse> reader = flight.join();
+            if (reader != null) {
+                readersJoined.increment();
+                return reader;
+            }
+            // Too far along to join: start a fresh flight in its place
+            flights.remove(flightKey, existing);
+        }
+    }
+
+    private ResponseInputStream<GetObjectResponse> lead(FlightKey flightKey, CompletableFuture<Flight> slot,
+                                                        Function<String, ResponseInputStream<GetObjectResponse>> fetch) {
+        ResponseInputStream<GetObjectResponse> upstream;
+        try {
+            upstream = fetch.apply(flightKey.range());
+        } catch (RuntimeException e) {
+            flights.remove(flightKey, slot);
+            slot.completeExceptionally(e);
+            throw e;
+        }
+
+        flightsStarted.increment();
+        LongFunction<ResponseInputStream<GetObjectResponse>> resume = resumeFrom(upstream.response(), fetch);
+        Flight flight = new Flight(upstream, bufferSizeFor(upstream.response()), resume, readersEvicted,
+                () -> flights.remove(flightKey, slot));
+        ResponseInputStream<GetObjectResponse> reader = flight.join();
+        slot.complete(flight);
+        return reader;
+    }
+
+    private int bufferSizeFor(GetObjectResponse response) {
+        long bufferSize = settings.getBufferSize().toBytes();
+        Long contentLength = response.contentLength();
+        if (contentLength != null) {
+            bufferSize = Math.min(bufferSize, contentLength);
+        }
+        return (int) Math.max(1, bufferSize);
+    }
+
+    /**
+     * Opens the rest of the body from an offset into the flight's response. Keys are never
+     * overwritten, so the bytes match what the flight would have delivered.
+     */
+    private static LongFunction<ResponseInputStream<GetObjectResponse>> resumeFrom(
+            GetObjectResponse response, Function<String, ResponseInputStream<GetObjectResponse>> fetch) {
+        long first = 0;
+        long last = response.contentLength() == null ? -1 : response.contentLength() - 1;
+        String contentRange = response.contentRange();
+        if (contentRange != null && contentRange.startsWith("bytes ") && contentRange.contains("-")) {
+            String span = contentRange.substring("bytes ".length(), contentRange.indexOf('/'));
+            first = Long.parseLong(span.substring(0, span.indexOf('-')));
+            last = Long.parseLong(span.substring(span.indexOf('-') + 1));
+        }
+        long start = first;
+        long end = last;
+        return offset -> fetch.apply("bytes=" + (start + offset) + "-" + (end < 0 ? "" : end));
+    }
+
+    private record FlightKey(String key, String range) {
+    }
+
+    /**
+     * One shared upstream GET and the ring buffer its readers consume from.
+     * All state is guarded by the flight's lock; upstream reads happen outside it. A lock
+     * rather than a monitor, so readers waiting on virtual threads do not pin their carriers.
+     */
+    private static final class Flight {
+
+        private final ResponseInputStream<GetObjectResponse> upstream;
+        private final byte[] ring;
+        private final byte[] scratch;
+        private final LongFunction<ResponseInputStream<GetObjectResponse>> resumeFetch;
+        private final Counter evictions;
+        private final Runnable onDone;
+        private final List<Reader> readers = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private long written;
+        private boolean fetching;
+        private boolean finished;
+        private boolean closed;
+        private IOException error;
+
+        private Flight(ResponseInputStream<GetObjectResponse> upstream, int bufferSize,
+                       LongFunction<ResponseInputStream<GetObjectResponse>> resume, Counter evictions,
+                       Runnable onDone) {
+            this.upstream = upstream;
+            this.ring = new byte[bufferSize];
+            this.scratch = new byte[Math.min(bufferSize, FETCH_BLOCK_SIZE)];
+            this.resumeFetch = resume;
+            this.evictions = evictions;
+            this.onDone = onDone;
+        }
+
+        /**
+         * Attaches a new reader at the start of the body.
+         *
+         * @return The reader's stream, or {@code null} if the start has already been overwritten.
+         */
+        private ResponseInputStream<GetObjectResponse> join() {
+            lock.lock();
+            try {
+                if (closed || error != null || written > ring.length) {
+                    return null;
+                }
+                Reader reader = new Reader(this);
+                readers.add(reader);
+                return new ResponseInputStream<>(upstream.response(), AbortableInputStream.create(reader, reader::detach));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return The number of bytes read, -1 at the end of the body, or {@link #EVICTED}
+         * if bytes the reader still needs have been overwritten.
+         */
+        private int read(Reader reader, byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                lock.lock();
+                try {
+                    while (true) {
+                        if (reader.detached) {
+                            throw new IOException("Stream closed");
+                        }
+                        if (written - reader.position > ring.length) {
+                            reader.detached = true;
+                            remove(reader);
+                            evictions.increment();
+                            return EVICTED;
+                        }
+                        if (reader.position < written) {
+                            int n = (int) Math.min(len, written - reader.position);
+                            copyOut(reader.position, b, off, n);
+                            reader.position += n;
+                            changed.signalAll();
+                            return n;
+                        }
+                        if (error != null) {
+                            throw new IOException("Shared R2 read failed", error);
+                        }
+                        if (finished) {
+                            return -1;
+                        }
+                        if (!fetching) {
+                            fetching = true;
+                            break;
+                        }
+                        try {
+                            changed.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Interrupted while waiting for shared R2 read");
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                fetch();
+            }
+        }
+
+        /**
+         * Reads the next block from R2 into the ring, overwriting the oldest bytes.
+         * Only one reader fetches at a time.
+         */
+        private void fetch() {
+            int n;
+            IOException failure = null;
+            try {
+                n = upstream.read(scratch, 0, scratch.length);
+            } catch (IOException e) {
+                failure = e;
+                n = -1;
+            }
+
+            lock.lock();
+            try {
+                fetching = false;
+                if (closed) {
+                    upstream.abort();
+                } else if (failure != null) {
+                    error = failure;
+                    upstream.abort();
+                    onDone.run();
+                } else if (n < 0) {
+                    finished = true;
+                    closeUpstream();
+                    onDone.run();
+                } else {
+                    copyIn(n);
+                    written += n;
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Opens the rest of the body for a reader that was evicted at {@code position}.
+         */
+        private ResponseInputStream<GetObjectResponse> resume(long position) throws IOException {
+            try {
+                return resumeFetch.apply(position);
+            } catch (RuntimeException e) {
+                throw new IOException("Failed to resume R2 read at offset " + position, e);
+            }
+        }
+
+        private void detach(Reader reader) {
+            lock.lock();
+            try {
+                if (reader.detached) {
+                    return;
+                }
+                reader.detached = true;
+                remove(reader);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Reader reader) {
+            readers.remove(reader);
+            changed.signalAll();
+            if (readers.isEmpty() && !finished && error == null) {
+                closed = true;
+                onDone.run();
+                if (!fetching) {
+                    upstream.abort();
+                }
+            }
+        }
+
+        private void copyOut(long position, byte[] b, int off, int n) {
+            int index = (int) (position % ring.length);
+            int first = Math.min(n, ring.length - index);
+            System.arraycopy(ring, index, b, off, first);
+            System.arraycopy(ring, 0, b, off + first, n - first);
+        }
+
+        private void copyIn(int n) {
+            int index = (int) (written % ring.length);
+            int first = Math.min(n, ring.length - index);
+            System.arraycopy(scratch, 0, ring, index, first);
+            System.arraycopy(scratch, first, ring, 0, n - first);
+        }
+
+        private void closeUpstream() {
+            try {
+                upstream.close();
+            } catch (IOException e) {
+                log.debug("Failed to close shared R2 stream: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A single request's view of a shared flight, or of its own GET once it was evicted.
+     */
+    private static final class Reader extends InputStream {
+
+        private final Flight flight;
+        private long position;
+        private boolean detached;
+        private volatile ResponseInputStream<GetObjectResponse> own;
+        private boolean ownFinished;
+
+        private Reader(Flight flight) {
+            this.flight = flight;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (own == null) {
+                int n = flight.read(this, b, off, len);
+                if (n != EVICTED) {
+                    return n;
+                }
+                own = flight.resume(position);
+            }
+            int n = own.read(b, off, len);
+            ownFinished = n < 0;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (own == null) {
+                flight.detach(this);
+            } else if (ownFinished) {
+                own.close();
+            } else {
+                // Closing would drain the rest of the body first
+                own.abort();
+            }
+        }
+
+        private void detach() {
+            if (own == null) {
+                flight.detach(this);
+            } else {
+                own.abort();
+            }
+        }
+    }
+}
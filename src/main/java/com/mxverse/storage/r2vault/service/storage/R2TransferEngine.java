@@ -0,0 +1,51 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.InputStream;
+
+/**
+ * Data path for moving object bytes between the application and Cloudflare R2.
+ * <p>
+ * Control-plane calls (listing, multipart bookkeeping, deletes) always go through the
+ * blocking {@code S3Client}. Only the byte-heavy operations are routed through this
+ * abstraction.
+ *
+ * @see SyncR2TransferEngine
+ */
+public interface R2TransferEngine {
+
+    /**
+     * Uploads a whole object.
+     *
+     * @param request       The put request.
+     * @param content       The object body.
+     * @param contentLength The exact number of bytes in {@code content}.
+     * @return The R2 response.
+     */
+    PutObjectResponse putObject(PutObjectRequest request, InputStream content, long contentLength);
+
+    /**
+     * Uploads a single part of a multipart upload.
+     *
+     * @param request       The part request.
+     * @param content       The part body.
+     * @param contentLength The exact number of bytes in {@code content}.
+     * @return The R2 response carrying the part ETag.
+     */
+    UploadPartResponse uploadPart(UploadPartRequest request, InputStream content, long contentLength);
+
+    /**
+     * Opens an object (or a range of it) for streaming.
+     *
+     * @param request The get request.
+     * @return A stream over the object body, carrying the response metadata.
+     */
+    ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request);
+}
@@ -0,0 +1,42 @@
+package com.mxverse.storage.r2vault.service.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.InputStream;
+
+/**
+ * {@link R2TransferEngine} backed by the blocking {@link S3Client}.
+ * <p>
+ * The calling thread is held for the whole transfer.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncR2TransferEngine implements R2TransferEngine {
+
+    private final S3Client s3Client;
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, InputStream content, long contentLength) {
+        return s3Client.putObject(request, RequestBody.fromInputStream(content, contentLength));
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, InputStream content, long contentLength) {
+        return s3Client.uploadPart(request, RequestBody.fromInputStream(content, contentLength));
+    }
+
+    @Override
+    public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+        return s3Client.getObject(request);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mxverse.storage.r2vault.util;
+
+import software.amazon.awssdk.http.Abortable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Lets another thread abort the R2 requests a blocking call is waiting on.
+ * <p>
+ * A thread blocked in the SDK cannot be interrupted, but the HTTP request it waits on can
+ * be aborted, which fails the call promptly. Requests started while {@link #run} is on the
+ * stack are registered with the scope by the HTTP client; outside a scope registration
+ * does nothing.
+ */
+public final class AbortScope {
+
+    private static final ThreadLocal<AbortScope> CURRENT = new ThreadLocal<>();
+
+    private final List<Abortable> requests = new ArrayList<>();
+    private boolean aborted;
+
+    /**
+     * Runs {@code call} on the current thread with this scope active.
+     */
+    public <T> T run(Supplier<T> call) {
+        AbortScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Aborts every request registered so far and any registered later.
+     */
+    public void abort() {
+        List<Abortable> inFlight;
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            inFlight = List.copyOf(requests);
+            requests.clear();
+        }
+        inFlight.forEach(Abortable::abort);
+    }
+
+    /**
+     * Registers a request with the current thread's scope, if there is one.
+     */
+    public static void register(Abortable request) {
+        AbortScope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        synchronized (scope) {
+            if (!scope.aborted) {
+                scope.requests.add(request);
+                return;
+            }
+        }
+        request.abort();
+    }
+
+    /**
+     * @return {@code true} if the current thread runs in a scope that has been aborted.
+     */
+    public static boolean isCurrentAborted() {
+        AbortScope scope = CURRENT.get();
+        if (scope == null) {
+            return false;
+        }
+        synchronized (scope) {
+            return scope.aborted;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mxverse.storage.r2vault.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Digest helpers for storing and looking up secrets without keeping them in plain text.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * @param value The value to hash, encoded as UTF-8.
+     * @return The 32-byte SHA-256 digest.
+     */
+    public static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
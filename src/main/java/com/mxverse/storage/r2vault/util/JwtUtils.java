@@ -2,17 +2,18 @@ package com.mxverse.storage.r2vault.util;
 
 import com.mxverse.storage.r2vault.config.JwtConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 /**
  * Utility class for JSON Web Token (JWT) operations.
@@ -20,59 +21,79 @@ import java.util.function.Function;
  * Provides methods for generating, parsing, and validating JWTs used
  * for stateless authentication. It relies on {@link JwtConfig} for
  * signing keys and expiration settings.
+ * <p>
+ * The signing key and the parser are built once; {@link JwtParser} is immutable and
+ * shared by all request threads, so verifying a token costs a single parse and HMAC check.
  */
 @Component
-@RequiredArgsConstructor
 public class JwtUtils {
 
+    /**
+     * Claim carrying the user's token version at issue time.
+     */
+    public static final String VERSION_CLAIM = "ver";
+
+    /**
+     * Claim carrying the id of the device the token was issued to.
+     */
+    public static final String DEVICE_CLAIM = "did";
+
     private final JwtConfig jwtConfig;
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    public JwtUtils(JwtConfig jwtConfig) {
+        this.jwtConfig = jwtConfig;
+        this.signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
-    public String generateToken(String username) {
+    /**
+     * @param username     The token subject.
+     * @param tokenVersion The user's current token version.
+     * @param deviceId     The {@code Device} id the token is issued to, or {@code null}.
+     * @return A signed access token with a unique id.
+     */
+    public String generateToken(String username, long tokenVersion, String deviceId) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(VERSION_CLAIM, tokenVersion);
+        if (deviceId != null) {
+            claims.put(DEVICE_CLAIM, deviceId);
+        }
         return createToken(claims, username);
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtConfig.getExpiration()))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtConfig.getExpiration()))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Parses the token once, verifying its signature and expiry.
+     *
+     * @param token The compact JWT.
+     * @return The verified token.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                // Tokens issued before versioning count as version 0
+                version == null ? 0 : version.longValue(),
+                claims.get(DEVICE_CLAIM, String.class),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant());
     }
 }
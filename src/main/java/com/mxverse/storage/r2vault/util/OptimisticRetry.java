@@ -0,0 +1,62 @@
+package com.mxverse.storage.r2vault.util;
+
+import com.mxverse.storage.r2vault.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry of a transaction that lost an optimistic-lock race.
+ * <p>
+ * A version conflict means another request changed the same row first; running the whole
+ * transaction again on fresh state usually succeeds. Attempts are spaced with full jitter
+ * so that requests which collided once do not collide again in lockstep. When every attempt
+ * conflicts the caller gets a 503 with {@code Retry-After} instead of a 500.
+ */
+@Slf4j
+public final class OptimisticRetry {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_DELAY_MILLIS = 10;
+    private static final long MAX_DELAY_MILLIS = 200;
+
+    private OptimisticRetry() {
+    }
+
+    /**
+     * Runs {@code transaction}, retrying it on optimistic locking failures.
+     *
+     * @param operation   Name used in log messages.
+     * @param transaction A complete transaction; it must not join one that is already running.
+     * @param <T>         The result type.
+     * @return The result of the first attempt that did not conflict.
+     * @throws ServiceUnavailableException If every attempt conflicted.
+     */
+    public static <T> T execute(String operation, Supplier<T> transaction) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.warn("{} still conflicting after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw new ServiceUnavailableException("Upload state is busy, please retry shortly", 1);
+                }
+                long ceiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << (attempt - 1));
+                long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+                log.debug("{} hit a version conflict (attempt {}), retrying in {} ms", operation, attempt, delay);
+                sleep(delay);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while retrying, please retry shortly", 1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.mxverse.storage.r2vault.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * Implemented as the generic cell rate algorithm: instead of a token count, a single
+ * {@link AtomicLong} holds the instant at which the bucket would be full again, so
+ * refilling needs no timer and every operation is one compare-and-set.
+ */
+public final class TokenBucket {
+
+    private final double nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity        Tokens the bucket holds; the largest burst allowed.
+     * @param refillPerSecond Tokens added per second.
+     */
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.nanosPerToken = 1_000_000_000d / refillPerSecond;
+        this.burstNanos = (long) (capacity * nanosPerToken);
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes {@code tokens} if they are available.
+     *
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until they would be.
+     */
+    public long tryAcquire(long tokens) {
+        long cost = (long) (tokens * nanosPerToken);
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Takes {@code tokens} unconditionally, going into debt if necessary.
+     * Used to shape a stream: the caller waits for the returned time before continuing.
+     *
+     * @return The nanoseconds the caller should wait to stay within the rate.
+     */
+    public long reserve(long tokens) {
+        long cost = (long) (tokens * nanosPerToken);
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            if (fullAt.compareAndSet(current, next)) {
+                return Math.max(0, next - now - burstNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mxverse.storage.r2vault.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562).
+ * <p>
+ * The first 48 bits are the Unix time in milliseconds, so ids generated later sort after
+ * earlier ones and new rows or object keys land next to each other instead of on random
+ * index pages or key ranges. The remaining 74 bits are random. Entities get the same
+ * layout from Hibernate's {@code @UuidGenerator(style = VERSION_7)}.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private UuidV7() {
+    }
+
+    /**
+     * @return A new version 7 UUID for the current time.
+     */
+    public static UUID randomUuid() {
+        byte[] random = new byte[10];
+        RANDOM.nextBytes(random);
+
+        long timestamp = System.currentTimeMillis();
+        long mostSignificant = (timestamp << 16)
+                | 0x7000L // version 7
+                | ((random[0] & 0x0FL) << 8) | (random[1] & 0xFFL);
+
+        long leastSignificant = 0;
+        for (int i = 2; i < 10; i++) {
+            leastSignificant = (leastSignificant << 8) | (random[i] & 0xFFL);
+        }
+        // IETF variant
+        leastSignificant = (leastSignificant & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,17 @@
+package com.mxverse.storage.r2vault.util;
+
+import java.time.Instant;
+
+/**
+ * The claims of an access token whose signature and expiry have been verified.
+ *
+ * @param tokenId      The token's unique id ({@code jti}), used for revocation.
+ * @param username     The token subject.
+ * @param tokenVersion The user's token version when the token was issued.
+ * @param deviceId     The device the token was issued to ({@code did}), or {@code null}.
+ * @param issuedAt     When the token was issued.
+ * @param expiresAt    When the token expires.
+ */
+public record VerifiedToken(String tokenId, String username, long tokenVersion, String deviceId,
+                            Instant issuedAt, Instant expiresAt) {
+}
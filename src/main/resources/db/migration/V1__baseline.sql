@@ -0,0 +1,113 @@
+-- Baseline schema, matching what Hibernate generated from the entities.
+-- Statements are idempotent so the script can also be applied over a schema created by ddl-auto:
+-- such databases are baselined at version 0, so this script runs on them too and brings the
+-- tables created from the original entities up to date.
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    enabled       BOOLEAN      NOT NULL DEFAULT TRUE,
+    token_version BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+-- Columns added to the user since the tables were generated by ddl-auto
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    ADD COLUMN IF NOT EXISTS token_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS account_keys
+(
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id              BIGINT       NOT NULL,
+    wrapped_key          TEXT         NOT NULL,
+    recovery_wrapped_key TEXT,
+    kdf_salt             VARCHAR(255) NOT NULL,
+    kdf_iterations       INTEGER      NOT NULL,
+    CONSTRAINT uk_account_keys_user UNIQUE (user_id),
+    CONSTRAINT fk_account_keys_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS devices
+(
+    id             VARCHAR(255)                NOT NULL PRIMARY KEY,
+    user_id        BIGINT                      NOT NULL,
+    device_id      VARCHAR(255)                NOT NULL,
+    name           VARCHAR(255),
+    platform       VARCHAR(255),
+    last_active_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    is_active      BOOLEAN                     NOT NULL,
+    CONSTRAINT fk_devices_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS file_records
+(
+    id                VARCHAR(255)                NOT NULL PRIMARY KEY,
+    user_id           BIGINT                      NOT NULL,
+    s3_key            VARCHAR(255)                NOT NULL,
+    original_filename TEXT                        NOT NULL,
+    size              BIGINT                      NOT NULL,
+    content_type      VARCHAR(255),
+    encrypted_key     TEXT,
+    iv                TEXT,
+    algorithm         VARCHAR(255),
+    created_at        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_file_records_s3_key UNIQUE (s3_key),
+    CONSTRAINT fk_file_records_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS upload_sessions
+(
+    id             VARCHAR(255)                NOT NULL PRIMARY KEY,
+    user_id        BIGINT                      NOT NULL,
+    file_record_id VARCHAR(255)                NOT NULL,
+    upload_id      TEXT                        NOT NULL,
+    part_size      BIGINT                      NOT NULL,
+    total_parts    INTEGER                     NOT NULL,
+    total_size     BIGINT                      NOT NULL,
+    status         VARCHAR(255)                NOT NULL,
+    version        INTEGER,
+    expires_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at     TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT ck_upload_sessions_status CHECK (status IN ('INITIATED', 'IN_PROGRESS', 'COMPLETED', 'ABORTED')),
+    CONSTRAINT fk_upload_sessions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_upload_sessions_file_record FOREIGN KEY (file_record_id) REFERENCES file_records (id)
+);
+
+CREATE TABLE IF NOT EXISTS uploaded_parts
+(
+    id          VARCHAR(255)                NOT NULL PRIMARY KEY,
+    session_id  VARCHAR(255)                NOT NULL,
+    part_number INTEGER                     NOT NULL,
+    etag        VARCHAR(255)                NOT NULL,
+    size        BIGINT                      NOT NULL,
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    -- Also serves the part lookups and the ordered part listing of a session
+    CONSTRAINT uk_uploaded_parts_session_part UNIQUE (session_id, part_number),
+    CONSTRAINT fk_uploaded_parts_session FOREIGN KEY (session_id) REFERENCES upload_sessions (id)
+);
+
+-- Replaced by refresh_token_digests. The old table held the tokens themselves, so it is
+-- dropped rather than converted; its users sign in once more.
+DROP TABLE IF EXISTS refresh_tokens;
+
+CREATE TABLE IF NOT EXISTS refresh_token_digests
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT,
+    token_hash  BYTEA                       NOT NULL,
+    expiry_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_refresh_token_digests_user UNIQUE (user_id),
+    CONSTRAINT uk_refresh_token_digests_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_token_digests_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens
+(
+    id         VARCHAR(64)                 NOT NULL PRIMARY KEY,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,34 @@
+-- Indexes for the repository queries. Lookups by primary key and by the unique columns
+-- (users.username, account_keys.user_id, file_records.s3_key, refresh_token_digests.token_hash
+-- and .user_id, uploaded_parts(session_id, part_number)) are served by their constraints.
+-- Built concurrently so existing tables stay writable; Flyway runs this script outside a transaction.
+
+-- DeviceRepository.findByUser, findByUserAndDeviceId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_devices_user_device ON devices (user_id, device_id);
+
+-- DeviceRepository.findByUserAndIsActive
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_devices_user_active ON devices (user_id, is_active);
+
+-- DeviceRepository.findByUserIdOrderByLastActiveAtAsc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_devices_user_last_active ON devices (user_id, last_active_at);
+
+-- FileRecordRepository.findAllByUser; newest first for listings
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_file_records_user_created ON file_records (user_id, created_at);
+
+-- UploadSessionRepository.findByUploadId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_upload_sessions_upload_id ON upload_sessions (upload_id);
+
+-- UploadSessionRepository.findAllByStatusAndExpiresAtBefore, used by the cleanup sweep.
+-- Only unfinished sessions are swept, so completed and aborted ones stay out of the index.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_upload_sessions_open_expiry ON upload_sessions (status, expires_at)
+    WHERE status IN ('INITIATED', 'IN_PROGRESS');
+
+-- Foreign keys, so deleting a user or a file record does not scan the sessions
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_upload_sessions_user ON upload_sessions (user_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_upload_sessions_file_record ON upload_sessions (file_record_id);
+
+-- RefreshTokenRepository.deleteExpiredBatch
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_token_digests_expiry ON refresh_token_digests (expiry_date);
+
+-- RevokedTokenRepository.findActiveIds (index-only) and deleteExpired
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_revoked_tokens_expiry ON revoked_tokens (expires_at) INCLUDE (id);
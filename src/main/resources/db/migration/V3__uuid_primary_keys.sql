@@ -0,0 +1,39 @@
+-- Store the UUID primary keys natively (16 bytes) instead of as 36-character strings.
+-- Existing ids are already UUID strings; new ones are time-ordered version 7 UUIDs.
+
+-- Foreign keys must be dropped while both sides change type. Databases baselined from
+-- ddl-auto have generated constraint names, so they are looked up rather than named.
+DO
+$$
+    DECLARE
+        fk RECORD;
+    BEGIN
+        FOR fk IN SELECT conname, conrelid::regclass AS owner
+                  FROM pg_constraint
+                  WHERE contype = 'f'
+                    AND confrelid IN ('file_records'::regclass, 'upload_sessions'::regclass)
+            LOOP
+                EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.owner, fk.conname);
+            END LOOP;
+    END
+$$;
+
+ALTER TABLE devices
+    ALTER COLUMN id TYPE UUID USING id::uuid;
+
+ALTER TABLE file_records
+    ALTER COLUMN id TYPE UUID USING id::uuid;
+
+ALTER TABLE upload_sessions
+    ALTER COLUMN id TYPE UUID USING id::uuid,
+    ALTER COLUMN file_record_id TYPE UUID USING file_record_id::uuid;
+
+ALTER TABLE uploaded_parts
+    ALTER COLUMN id TYPE UUID USING id::uuid,
+    ALTER COLUMN session_id TYPE UUID USING session_id::uuid;
+
+ALTER TABLE upload_sessions
+    ADD CONSTRAINT fk_upload_sessions_file_record FOREIGN KEY (file_record_id) REFERENCES file_records (id);
+
+ALTER TABLE uploaded_parts
+    ADD CONSTRAINT fk_uploaded_parts_session FOREIGN KEY (session_id) REFERENCES upload_sessions (id);
@@ -0,0 +1,24 @@
+-- Finished upload sessions are moved out of upload_sessions by UploadArchiveService, so
+-- the hot table and its indexes hold only live uploads and recently finished ones.
+
+-- No foreign keys: archived rows outlive the users and files they refer to.
+CREATE TABLE IF NOT EXISTS upload_sessions_archive
+(
+    id             UUID         NOT NULL,
+    user_id        BIGINT       NOT NULL,
+    file_record_id UUID         NOT NULL,
+    upload_id      TEXT         NOT NULL,
+    part_size      BIGINT       NOT NULL,
+    total_parts    INTEGER      NOT NULL,
+    total_size     BIGINT       NOT NULL,
+    status         VARCHAR(255) NOT NULL,
+    created_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    finished_at    TIMESTAMP(6) WITH TIME ZONE,
+    archived_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT pk_upload_sessions_archive PRIMARY KEY (id)
+);
+
+-- Append-only and inserted in time order, so a BRIN index covers range scans at a
+-- fraction of a B-tree's size.
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_archive_archived
+    ON upload_sessions_archive USING BRIN (archived_at);
@@ -0,0 +1,5 @@
+-- Finds the next batch for UploadArchiveService without touching the live sessions.
+-- Kept apart from V4 because Flyway runs a CONCURRENTLY build outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_upload_sessions_finished
+    ON upload_sessions (updated_at)
+    WHERE status IN ('COMPLETED', 'ABORTED');
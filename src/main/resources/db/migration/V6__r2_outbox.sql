@@ -0,0 +1,19 @@
+-- R2 side effects recorded with the database change they belong to and carried out by
+-- R2OutboxDispatcher. Rows are deleted once R2 has accepted the call.
+CREATE TABLE IF NOT EXISTS r2_outbox
+(
+    id              UUID                        NOT NULL,
+    type            VARCHAR(32)                 NOT NULL,
+    s3_key          TEXT                        NOT NULL,
+    upload_id       TEXT,
+    attempts        INTEGER                     NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error      TEXT,
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_r2_outbox PRIMARY KEY (id),
+    CONSTRAINT ck_r2_outbox_type CHECK (type IN ('DELETE_OBJECT', 'ABORT_MULTIPART_UPLOAD'))
+);
+
+-- The table is empty when the dispatcher keeps up, so a plain build does not block anything.
+CREATE INDEX IF NOT EXISTS idx_r2_outbox_due
+    ON r2_outbox (next_attempt_at);
@@ -0,0 +1,4 @@
+-- The device a refresh token was issued to, so refreshed access tokens keep their did claim
+-- and stay subject to device revocation. Null for tokens issued without a device.
+ALTER TABLE refresh_token_digests
+    ADD COLUMN IF NOT EXISTS device_id UUID;
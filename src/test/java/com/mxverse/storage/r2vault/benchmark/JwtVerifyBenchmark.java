@@ -0,0 +1,83 @@
+package com.mxverse.storage.r2vault.benchmark;
+
+import com.mxverse.storage.r2vault.config.JwtConfig;
+import com.mxverse.storage.r2vault.service.auth.AccessTokenVerifier;
+import com.mxverse.storage.r2vault.util.JwtUtils;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking one request's access token.
+ * <p>
+ * {@code threeParsesWithRebuiltParser} is the former path: the filter and
+ * {@code validateToken} parsed the token three times, each time building the HMAC key
+ * and the parser anew. {@code singleParse} is {@link JwtUtils#verify}, and
+ * {@code cachedVerifier} is a repeat request served by {@link AccessTokenVerifier}.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtUtils jwtUtils;
+    private AccessTokenVerifier accessTokenVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setExpiration(TimeUnit.HOURS.toMillis(1));
+        jwtUtils = new JwtUtils(jwtConfig);
+        accessTokenVerifier = new AccessTokenVerifier(jwtUtils, jwtConfig);
+        token = jwtUtils.generateToken("benchmark", 1, "device-1");
+    }
+
+    @Benchmark
+    public String threeParsesWithRebuiltParser() {
+        String username = parseWithNewParser(token).getSubject();
+        boolean valid = username.equals(parseWithNewParser(token).getSubject())
+                && !parseWithNewParser(token).getExpiration().before(new Date());
+        return valid ? username : null;
+    }
+
+    @Benchmark
+    public VerifiedToken singleParse() {
+        return jwtUtils.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cachedVerifier() {
+        return accessTokenVerifier.verify(token);
+    }
+
+    private static Claims parseWithNewParser(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
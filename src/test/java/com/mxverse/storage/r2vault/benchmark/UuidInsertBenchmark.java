@@ -0,0 +1,122 @@
+package com.mxverse.storage.r2vault.benchmark;
+
+import com.mxverse.storage.r2vault.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert cost of random (v4) versus time-ordered (v7) {@code uuid} primary keys in
+ * PostgreSQL, on tables that already hold {@code preloadRows} rows.
+ * <p>
+ * Random keys land on random leaf pages of the primary-key index, so once the index
+ * outgrows the buffer cache every insert dirties and often splits a different page;
+ * time-ordered keys append to the rightmost page. Rows are inserted in batches of
+ * {@value #BATCH_SIZE}, one transaction per batch, and the score is per row. At the end
+ * the size of each primary-key index is printed; random keys leave it larger because
+ * split pages stay half full.
+ * <p>
+ * Needs Docker for the PostgreSQL container.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000000"})
+    private int preloadRows;
+
+    private PostgreSQLContainer postgres;
+    private Connection connection;
+    private PreparedStatement insertV4;
+    private PreparedStatement insertV7;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // A small cache, so the random-key index outgrows it as it would in production
+        postgres = new PostgreSQLContainer("postgres:16-alpine")
+                .withCommand("postgres", "-c", "shared_buffers=32MB");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE keys_v4 (id uuid PRIMARY KEY, payload text NOT NULL)");
+            statement.execute("CREATE TABLE keys_v7 (id uuid PRIMARY KEY, payload text NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        insertV4 = connection.prepareStatement("INSERT INTO keys_v4 (id, payload) VALUES (?, ?)");
+        insertV7 = connection.prepareStatement("INSERT INTO keys_v7 (id, payload) VALUES (?, ?)");
+        for (int loaded = 0; loaded < preloadRows; loaded += BATCH_SIZE) {
+            insertBatch(insertV4, UUID::randomUUID);
+            insertBatch(insertV7, UuidV7::randomUuid);
+        }
+        try (Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(true);
+            statement.execute("VACUUM ANALYZE keys_v4");
+            statement.execute("VACUUM ANALYZE keys_v7");
+            connection.setAutoCommit(false);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet sizes = statement.executeQuery("SELECT pg_size_pretty(pg_relation_size('keys_v4_pkey')), "
+                     + "pg_size_pretty(pg_relation_size('keys_v7_pkey'))")) {
+            sizes.next();
+            System.out.println("Primary-key index size: v4 " + sizes.getString(1) + ", v7 " + sizes.getString(2));
+        } finally {
+            connection.close();
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void randomV4() throws SQLException {
+        insertBatch(insertV4, UUID::randomUUID);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void timeOrderedV7() throws SQLException {
+        insertBatch(insertV7, UuidV7::randomUuid);
+    }
+
+    private void insertBatch(PreparedStatement insert, Supplier<UUID> ids) throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, ids.get());
+            insert.setString(2, "users/benchmark/object");
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
@@ -0,0 +1,107 @@
+package com.mxverse.storage.r2vault.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serve a burst of concurrent requests that each block on I/O, as the request
+ * threads do on the S3 client, JDBC and BCrypt.
+ * <p>
+ * {@code platformPool} models Tomcat's default 200 request threads; {@code virtualThreads}
+ * the virtual-thread mode ({@code VIRTUAL_THREADS_ENABLED}), one virtual thread per
+ * request. {@code virtualThreadsPinned} blocks inside {@code synchronized}, which on
+ * Java 21 pins the carrier thread: it shows the loss that the pinning monitor reports.
+ * <p>
+ * One operation is a burst of {@code requests} requests blocking {@code blockMillis} each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"1000", "5000"})
+    private int requests;
+
+    @Param({"20"})
+    private long blockMillis;
+
+    private ExecutorService platformPool;
+    private ExecutorService virtualThreads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        platformPool = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        platformPool.shutdownNow();
+        virtualThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public int platformPool() throws Exception {
+        return serve(platformPool, false);
+    }
+
+    @Benchmark
+    public int virtualThreads() throws Exception {
+        return serve(virtualThreads, false);
+    }
+
+    @Benchmark
+    public int virtualThreadsPinned() throws Exception {
+        return serve(virtualThreads, true);
+    }
+
+    private int serve(ExecutorService executor, boolean pinned) throws InterruptedException, ExecutionException {
+        List<Future<Integer>> responses = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            responses.add(executor.submit(() -> pinned ? blockPinned(request) : block(request)));
+        }
+        int served = 0;
+        for (Future<Integer> response : responses) {
+            served += response.get() >= 0 ? 1 : 0;
+        }
+        return served;
+    }
+
+    private int block(int request) throws InterruptedException {
+        Thread.sleep(blockMillis);
+        return request;
+    }
+
+    private int blockPinned(int request) throws InterruptedException {
+        Object monitor = new Object();
+        synchronized (monitor) {
+            Thread.sleep(blockMillis);
+        }
+        return request;
+    }
+}
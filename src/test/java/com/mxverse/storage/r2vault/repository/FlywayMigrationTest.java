@@ -0,0 +1,107 @@
+package com.mxverse.storage.r2vault.repository;
+
+import com.mxverse.storage.r2vault.entity.User;
+import com.mxverse.storage.r2vault.repository.auth.UserRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upgrades a database created by {@code ddl-auto: update} from the original entities.
+ * <p>
+ * The schema and rows of {@code db/ddl-auto-schema.sql} are loaded into a PostgreSQL
+ * container before the application starts. Startup then baselines and migrates it with
+ * Flyway and validates the result against the current entities, so the context only comes
+ * up if the migrations produce exactly the mapped schema.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+@DirtiesContext
+public class FlywayMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    static void createDdlAutoSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/ddl-auto-schema.sql"));
+        }
+    }
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("app.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("app.datasource.username", POSTGRES::getUsername);
+        registry.add("app.datasource.password", POSTGRES::getPassword);
+        registry.add("app.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @Test
+    void existingDatabaseIsBaselinedBelowV1AndFullyMigrated() {
+        assertEquals("0", flyway.info().applied()[0].getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+        assertNotNull(flyway.info().current());
+    }
+
+    @Test
+    void userColumnsAreAddedWithDefaults() {
+        User user = userRepository.findCurrentByUsername("legacy").orElseThrow();
+        assertTrue(user.isEnabled());
+        assertEquals(0, user.getTokenVersion());
+    }
+
+    @Test
+    void uuidKeysAreConvertedWithTheirRows() {
+        assertEquals("uuid", columnType("file_records", "id"));
+        assertEquals("uuid", columnType("uploaded_parts", "session_id"));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM uploaded_parts p JOIN upload_sessions s ON s.id = p.session_id "
+                        + "JOIN file_records f ON f.id = s.file_record_id WHERE f.s3_key = 'users/legacy/a.bin'",
+                Integer.class));
+    }
+
+    @Test
+    void plaintextRefreshTokensAreDropped() {
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass('refresh_tokens')", String.class));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass('refresh_token_digests')", String.class));
+    }
+
+    private String columnType(String table, String column) {
+        return jdbcTemplate.queryForObject(
+                "SELECT data_type FROM information_schema.columns WHERE table_name = ? AND column_name = ?",
+                String.class, table, column);
+    }
+}
@@ -0,0 +1,166 @@
+package com.mxverse.storage.r2vault.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that every repository query is served by an index of the migrated schema.
+ * <p>
+ * The migrations are applied to a PostgreSQL container, sequential scans are disabled for
+ * the session, and the plan of the SQL each repository method issues must scan one of the
+ * expected indexes, compared by exact name. Where several indexes lead with the filtered
+ * column, any of them is accepted.
+ */
+@Testcontainers
+public class QueryPlanTest {
+
+    private static final String SCHEMA = "r2vault_plan_test";
+    private static final String SESSION_ID = "'01900000-0000-7000-8000-000000000000'";
+    private static final Pattern INDEX_SCAN =
+            Pattern.compile("(?:Index Scan|Index Only Scan) using (\\w+)|Bitmap Index Scan on (\\w+)");
+    private static final Set<String> DEVICE_USER_INDEXES =
+            Set.of("idx_devices_user_device", "idx_devices_user_active", "idx_devices_user_last_active");
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static Flyway flyway;
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        String url = POSTGRES.getJdbcUrl();
+        String username = POSTGRES.getUsername();
+        String password = POSTGRES.getPassword();
+
+        flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        connection = DriverManager.getConnection(url, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+            // With no rows a sequential scan is always cheapest; only an index can avoid it
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    static void cleanUp() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        if (flyway != null) {
+            flyway.clean();
+        }
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                Arguments.of("UserRepository.findByUsername",
+                        "SELECT * FROM users WHERE username = 'alice'", Set.of("uk_users_username")),
+                Arguments.of("AccountKeyRepository.findByUserId",
+                        "SELECT * FROM account_keys WHERE user_id = 1", Set.of("uk_account_keys_user")),
+                Arguments.of("DeviceRepository.findByUser",
+                        "SELECT * FROM devices WHERE user_id = 1", DEVICE_USER_INDEXES),
+                Arguments.of("DeviceRepository.findByUserAndIsActive",
+                        "SELECT * FROM devices WHERE user_id = 1 AND is_active = true",
+                        Set.of("idx_devices_user_active")),
+                Arguments.of("DeviceRepository.findByUserAndDeviceId",
+                        "SELECT * FROM devices WHERE user_id = 1 AND device_id = 'phone'", Set.of("idx_devices_user_device")),
+                Arguments.of("DeviceRepository.findByUserIdOrderByLastActiveAtAsc",
+                        "SELECT * FROM devices WHERE user_id = 1 ORDER BY last_active_at",
+                        Set.of("idx_devices_user_last_active")),
+                Arguments.of("FileRecordRepository.findByS3Key",
+                        "SELECT * FROM file_records WHERE s3_key = 'users/alice/a.bin'", Set.of("uk_file_records_s3_key")),
+                Arguments.of("FileRecordRepository.findAllByUser",
+                        "SELECT * FROM file_records WHERE user_id = 1", Set.of("idx_file_records_user_created")),
+                Arguments.of("UploadSessionRepository.findByUploadId",
+                        "SELECT * FROM upload_sessions WHERE upload_id = 'upload-1'", Set.of("idx_upload_sessions_upload_id")),
+                Arguments.of("UploadSessionRepository.findAllByStatusAndExpiresAtBefore",
+                        "SELECT * FROM upload_sessions WHERE status = 'INITIATED' AND expires_at < now()",
+                        Set.of("idx_upload_sessions_open_expiry")),
+                Arguments.of("UploadSessionRepository.archiveFinishedBatch",
+                        "SELECT id FROM upload_sessions WHERE status IN ('COMPLETED', 'ABORTED') "
+                                + "AND updated_at < now() ORDER BY updated_at LIMIT 500",
+                        Set.of("idx_upload_sessions_finished")),
+                Arguments.of("UploadedPartRepository.findBySessionAndPartNumber",
+                        "SELECT * FROM uploaded_parts WHERE session_id = " + SESSION_ID + " AND part_number = 1",
+                        Set.of("uk_uploaded_parts_session_part")),
+                Arguments.of("UploadedPartRepository.findAllBySessionOrderByPartNumberAsc",
+                        "SELECT * FROM uploaded_parts WHERE session_id = " + SESSION_ID + " ORDER BY part_number",
+                        Set.of("uk_uploaded_parts_session_part")),
+                Arguments.of("UploadedPartRepository.deleteAllBySession",
+                        "DELETE FROM uploaded_parts WHERE session_id = " + SESSION_ID,
+                        Set.of("uk_uploaded_parts_session_part")),
+                Arguments.of("RefreshTokenRepository.findByUser",
+                        "SELECT * FROM refresh_token_digests WHERE user_id = 1", Set.of("uk_refresh_token_digests_user")),
+                Arguments.of("RefreshTokenRepository.findByTokenHash",
+                        "SELECT * FROM refresh_token_digests rt JOIN users u ON u.id = rt.user_id "
+                                + "WHERE rt.token_hash = '\\x00'::bytea", Set.of("uk_refresh_token_digests_hash")),
+                Arguments.of("RefreshTokenRepository.deleteExpiredBatch",
+                        "DELETE FROM refresh_token_digests WHERE id IN "
+                                + "(SELECT id FROM refresh_token_digests WHERE expiry_date < now() LIMIT 1000)",
+                        Set.of("idx_refresh_token_digests_expiry")),
+                Arguments.of("RevokedTokenRepository.findActiveIds",
+                        "SELECT id FROM revoked_tokens WHERE expires_at > now()", Set.of("idx_revoked_tokens_expiry")),
+                Arguments.of("RevokedTokenRepository.deleteExpired",
+                        "DELETE FROM revoked_tokens WHERE expires_at <= now()", Set.of("idx_revoked_tokens_expiry")));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryUsesIndex(String query, String sql, Set<String> expectedIndexes) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(plan.contains("Seq Scan"), query + " scans a whole table:\n" + plan);
+        Set<String> used = scannedIndexes(plan);
+        assertTrue(used.stream().anyMatch(expectedIndexes::contains),
+                query + " uses " + used + " instead of one of " + expectedIndexes + ":\n" + plan);
+    }
+
+    private static Set<String> scannedIndexes(String plan) {
+        Set<String> indexes = new HashSet<>();
+        Matcher matcher = INDEX_SCAN.matcher(plan);
+        while (matcher.find()) {
+            indexes.add(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+        }
+        return indexes;
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.config.JwtConfig;
+import com.mxverse.storage.r2vault.service.auth.AccessTokenVerifier;
+import com.mxverse.storage.r2vault.util.JwtUtils;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The verified-token cache skips the signature check for a token seen before, never
+ * serves a token past its expiry, and drops a user's tokens on eviction.
+ */
+public class AccessTokenVerifierTest {
+
+    private JwtConfig jwtConfig;
+    private JwtUtils jwtUtils;
+    private AccessTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        jwtConfig = new JwtConfig();
+        jwtConfig.setSecret("404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        jwtConfig.setExpiration(3600000);
+        jwtUtils = new JwtUtils(jwtConfig);
+        verifier = new AccessTokenVerifier(jwtUtils, jwtConfig);
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCache() {
+        String token = jwtUtils.generateToken("alice", 3, "device-1");
+
+        VerifiedToken first = verifier.verify(token);
+        assertEquals("alice", first.username());
+        assertEquals(3, first.tokenVersion());
+        assertEquals("device-1", first.deviceId());
+        assertSame(first, verifier.verify(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedWhileOriginalIsCached() {
+        String token = jwtUtils.generateToken("alice", 0, null);
+        verifier.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> verifier.verify(tampered));
+    }
+
+    @Test
+    void entryExpiresWithItsToken() throws InterruptedException {
+        jwtConfig.setExpiration(1000);
+        String token = jwtUtils.generateToken("alice", 0, null);
+        verifier.verify(token);
+
+        // Token timestamps have second precision, so wait past the next full second
+        Thread.sleep(2100);
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void evictDropsOnlyThatUsersTokens() {
+        String alice = jwtUtils.generateToken("alice", 0, null);
+        String bob = jwtUtils.generateToken("bob", 0, null);
+        VerifiedToken aliceVerified = verifier.verify(alice);
+        VerifiedToken bobVerified = verifier.verify(bob);
+
+        verifier.evict("alice");
+
+        assertNotSame(aliceVerified, verifier.verify(alice));
+        assertSame(bobVerified, verifier.verify(bob));
+    }
+}
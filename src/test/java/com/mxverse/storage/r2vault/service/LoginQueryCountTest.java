@@ -0,0 +1,87 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.dto.auth.AuthRequest;
+import com.mxverse.storage.r2vault.dto.auth.TokenResponse;
+import com.mxverse.storage.r2vault.service.auth.AuthService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the number of SQL statements the login and refresh flows issue.
+ * <p>
+ * Before consolidation a login with a known device ran 8 statements (the user was loaded
+ * three times); it now runs 6: user, devices, device update, refresh token select and
+ * insert, account key.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@ActiveProfiles("test")
+public class LoginQueryCountTest {
+
+    private static final String USERNAME = "querycount";
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        authService.registerUser(new AuthRequest(USERNAME, PASSWORD, "device-1", "Phone",
+                "wrapped", "recovery", "salt", 100000, null));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loginWithKnownDeviceRunsSixStatements() {
+        statistics.clear();
+
+        TokenResponse response = authService.login(new AuthRequest(USERNAME, PASSWORD, "device-1", "Phone",
+                null, null, null, null, null));
+        entityManager.flush();
+
+        assertNotNull(response.accessToken());
+        assertNotNull(response.accountKey());
+        assertEquals(6, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void refreshLoadsTokenAndUserInOneStatement() {
+        TokenResponse login = authService.login(new AuthRequest(USERNAME, PASSWORD, "device-1", "Phone",
+                null, null, null, null, null));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        TokenResponse refreshed = authService.refreshToken(login.refreshToken());
+
+        assertNotNull(refreshed.accessToken());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -9,6 +9,7 @@ import com.mxverse.storage.r2vault.entity.UploadStatus;
 import com.mxverse.storage.r2vault.entity.User;
 import com.mxverse.storage.r2vault.repository.multipart.UploadSessionRepository;
 import com.mxverse.storage.r2vault.repository.auth.UserRepository;
+import com.mxverse.storage.r2vault.service.storage.R2OutboxDispatcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,7 @@ import software.amazon.awssdk.services.s3.model.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -49,6 +51,9 @@ public class MultipartUploadIntegrationTest {
     @Autowired
     private UploadCleanupService cleanupService;
 
+    @Autowired
+    private R2OutboxDispatcher outboxDispatcher;
+
     @Autowired
     private UploadSessionRepository sessionRepository;
 
@@ -84,7 +89,7 @@ public class MultipartUploadIntegrationTest {
         InitiateUploadRequest request = new InitiateUploadRequest("test.bin", 15 * 1024 * 1024L, "application/octet-stream", null, null, null);
         UploadSessionResponse initiateResponse = initiationService.initiateUpload(USERNAME, request);
         assertNotNull(initiateResponse.uploadId());
-        String sessionId = initiateResponse.sessionId();
+        UUID sessionId = initiateResponse.sessionId();
 
         // 2. Upload 3 parts (5MB each)
         MockMultipartFile partFile = new MockMultipartFile("file", "test.bin", "application/octet-stream", new byte[5 * 1024 * 1024]);
@@ -99,13 +104,16 @@ public class MultipartUploadIntegrationTest {
         UploadSession session = sessionRepository.findById(sessionId).orElseThrow();
         assertEquals(UploadStatus.COMPLETED, session.getStatus());
         verify(s3Client, times(1)).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+
+        // Parts are not kept once R2 has assembled the object
+        assertTrue(statusService.getUploadStatus(USERNAME, sessionId).uploadedParts().isEmpty());
     }
 
     @Test
     void test2_IdempotentPartUpload() {
         InitiateUploadRequest request = new InitiateUploadRequest("test.bin", 10 * 1024 * 1024L, "application/octet-stream", null, null, null);
         UploadSessionResponse initiateResponse = initiationService.initiateUpload(USERNAME, request);
-        String sessionId = initiateResponse.sessionId();
+        UUID sessionId = initiateResponse.sessionId();
 
         MockMultipartFile partFile = new MockMultipartFile("file", "test.bin", "application/octet-stream", new byte[5 * 1024 * 1024]);
 
@@ -122,7 +130,7 @@ public class MultipartUploadIntegrationTest {
     void test3_ResumeFlow() {
         InitiateUploadRequest request = new InitiateUploadRequest("test.bin", 10 * 1024 * 1024L, "application/octet-stream", null, null, null);
         UploadSessionResponse initiateResponse = initiationService.initiateUpload(USERNAME, request);
-        String sessionId = initiateResponse.sessionId();
+        UUID sessionId = initiateResponse.sessionId();
 
         MockMultipartFile partFile = new MockMultipartFile("file", "test.bin", "application/octet-stream", new byte[5 * 1024 * 1024]);
         partService.uploadPart(USERNAME, sessionId, 1, partFile);
@@ -144,7 +152,7 @@ public class MultipartUploadIntegrationTest {
     void test4_AbortRace() {
         InitiateUploadRequest request = new InitiateUploadRequest("test.bin", 10 * 1024 * 1024L, "application/octet-stream", null, null, null);
         UploadSessionResponse initiateResponse = initiationService.initiateUpload(USERNAME, request);
-        String sessionId = initiateResponse.sessionId();
+        UUID sessionId = initiateResponse.sessionId();
 
         // Abort
         abortService.abortUpload(USERNAME, sessionId);
@@ -161,7 +169,7 @@ public class MultipartUploadIntegrationTest {
     void test5_ExpiryCleanup() {
         InitiateUploadRequest request = new InitiateUploadRequest("test.bin", 10 * 1024 * 1024L, "application/octet-stream", null, null, null);
         UploadSessionResponse initiateResponse = initiationService.initiateUpload(USERNAME, request);
-        String sessionId = initiateResponse.sessionId();
+        UUID sessionId = initiateResponse.sessionId();
 
         // Force expiry in past
         UploadSession session = sessionRepository.findById(sessionId).orElseThrow();
@@ -173,6 +181,10 @@ public class MultipartUploadIntegrationTest {
 
         UploadSession updatedSession = sessionRepository.findById(sessionId).orElseThrow();
         assertEquals(UploadStatus.ABORTED, updatedSession.getStatus());
+
+        // The R2 abort is carried out from the outbox, not inside the cleanup transaction
+        verify(s3Client, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        outboxDispatcher.dispatchPending();
         verify(s3Client, times(1)).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
     }
 }
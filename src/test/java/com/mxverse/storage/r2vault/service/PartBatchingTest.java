@@ -0,0 +1,109 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.entity.FileRecord;
+import com.mxverse.storage.r2vault.entity.UploadSession;
+import com.mxverse.storage.r2vault.entity.UploadStatus;
+import com.mxverse.storage.r2vault.entity.UploadedPart;
+import com.mxverse.storage.r2vault.entity.User;
+import com.mxverse.storage.r2vault.repository.auth.UserRepository;
+import com.mxverse.storage.r2vault.repository.file.FileRecordRepository;
+import com.mxverse.storage.r2vault.repository.multipart.UploadSessionRepository;
+import com.mxverse.storage.r2vault.repository.multipart.UploadedPartRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards JDBC batching on the write path of a large multipart upload.
+ * <p>
+ * Registering the 1000 parts of an upload must be sent as batches of
+ * {@code hibernate.jdbc.batch_size} (50) rather than as 1000 single-row inserts.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@ActiveProfiles("test")
+public class PartBatchingTest {
+
+    private static final int PARTS = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileRecordRepository fileRecordRepository;
+
+    @Autowired
+    private UploadSessionRepository sessionRepository;
+
+    @Autowired
+    private UploadedPartRepository partRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = userRepository.save(User.builder()
+                .username("batching")
+                .password("password")
+                .build());
+        FileRecord fileRecord = fileRecordRepository.save(FileRecord.builder()
+                .user(user)
+                .s3Key("users/batching/large.bin")
+                .originalFilename("large.bin")
+                .size(PARTS * 5L * 1024 * 1024)
+                .build());
+        session = sessionRepository.save(UploadSession.builder()
+                .user(user)
+                .fileRecord(fileRecord)
+                .uploadId("s3-upload-id")
+                .partSize(5L * 1024 * 1024)
+                .totalParts(PARTS)
+                .totalSize(PARTS * 5L * 1024 * 1024)
+                .status(UploadStatus.IN_PROGRESS)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void partsOfALargeUploadAreInsertedInBatches() {
+        List<UploadedPart> parts = new ArrayList<>(PARTS);
+        for (int partNumber = 1; partNumber <= PARTS; partNumber++) {
+            parts.add(UploadedPart.builder()
+                    .session(session)
+                    .partNumber(partNumber)
+                    .etag("etag-" + partNumber)
+                    .size(5L * 1024 * 1024)
+                    .build());
+        }
+        statistics.clear();
+
+        partRepository.saveAll(parts);
+        entityManager.flush();
+
+        assertEquals(PARTS, statistics.getEntityInsertCount());
+        // One statement per batch at most; unbatched this would be 1000
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= PARTS / 50, "Expected batched inserts but prepared " + statements + " statements");
+    }
+}
@@ -0,0 +1,58 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.dto.auth.AuthRequest;
+import com.mxverse.storage.r2vault.dto.auth.ResetPasswordRequest;
+import com.mxverse.storage.r2vault.dto.auth.TokenResponse;
+import com.mxverse.storage.r2vault.exception.TokenRefreshException;
+import com.mxverse.storage.r2vault.service.auth.AuthService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A password reset ends every session, including refresh tokens issued before it.
+ */
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+public class PasswordResetRevocationTest {
+
+    private static final String USERNAME = "resetuser";
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void refreshAfterResetIsRejected() {
+        authService.registerUser(new AuthRequest(USERNAME, PASSWORD, "device-1", "Phone",
+                "wrapped", "recovery", "salt", 100000, null));
+        TokenResponse login = authService.login(new AuthRequest(USERNAME, PASSWORD, "device-1", "Phone",
+                null, null, null, null, null));
+        // Warm the verified-token cache so the reset has to clear it as well
+        authService.refreshToken(login.refreshToken());
+        entityManager.flush();
+        entityManager.clear();
+
+        authService.resetPassword(new ResetPasswordRequest(USERNAME, "newpassword123", "rewrapped", "salt2", 100000));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThrows(TokenRefreshException.class, () -> authService.refreshToken(login.refreshToken()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import com.mxverse.storage.r2vault.exception.ServiceUnavailableException;
+import com.mxverse.storage.r2vault.service.storage.R2CallGuard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AIMD limit changes and circuit breaker transitions of the R2 call guard.
+ */
+public class R2CallGuardTest {
+
+    private R2Properties.Guard settings;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        settings = new R2Properties().getGuard();
+        settings.setInitialLimit(2);
+        settings.setMinLimit(1);
+        settings.setMaxLimit(4);
+        settings.setBackoffRatio(0.5);
+        settings.setFailureThreshold(3);
+        settings.setOpenDuration(Duration.ofMillis(200));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void limitGrowsWhileUsedAndShrinksOnThrottling() {
+        R2CallGuard guard = guard();
+
+        // One call holds half of a limit of 2, so the limit is being used
+        guard.execute("HeadObject", () -> "ok");
+        assertEquals(3, limit());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(SdkServiceException.class, () -> guard.execute("HeadObject", () -> {
+                throw SdkServiceException.builder().statusCode(503).message("Slow Down").build();
+            }));
+        }
+        assertEquals(1, limit());
+    }
+
+    @Test
+    void slowCallsShrinkLimitExceptForUploads() {
+        R2CallGuard guard = guard();
+        for (int i = 0; i < 5; i++) {
+            guard.execute("HeadObject", () -> "ok");
+            guard.execute("PutObject", () -> "ok");
+        }
+        int before = limit();
+
+        guard.execute("PutObject", () -> sleep(50));
+        assertEquals(before, limit());
+
+        guard.execute("HeadObject", () -> sleep(50));
+        assertEquals(Math.max(1, before / 2), limit());
+    }
+
+    @Test
+    void circuitOpensHalfOpensAndCloses() throws InterruptedException {
+        R2CallGuard guard = guard();
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SdkClientException.class, () -> guard.execute("GetObject", () -> {
+                throw SdkClientException.create("connection reset");
+            }));
+        }
+        assertEquals(2, circuitState());
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(ServiceUnavailableException.class, () -> guard.execute("GetObject", calls::incrementAndGet));
+        assertEquals(0, calls.get());
+
+        Thread.sleep(250);
+        String result = guard.execute("GetObject", () -> {
+            assertEquals(1, circuitState());
+            // Only one trial call is let through while half-open
+            assertThrows(ServiceUnavailableException.class, () -> guard.execute("GetObject", calls::incrementAndGet));
+            return "ok";
+        });
+        assertEquals("ok", result);
+        assertEquals(0, calls.get());
+        assertEquals(0, circuitState());
+    }
+
+    @Test
+    void failedTrialReopensCircuit() throws InterruptedException {
+        R2CallGuard guard = guard();
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SdkClientException.class, () -> guard.execute("GetObject", () -> {
+                throw SdkClientException.create("connection reset");
+            }));
+        }
+
+        Thread.sleep(250);
+        assertThrows(SdkServiceException.class, () -> guard.execute("GetObject", () -> {
+            throw SdkServiceException.builder().statusCode(500).message("Internal Error").build();
+        }));
+        assertEquals(2, circuitState());
+        assertThrows(ServiceUnavailableException.class, () -> guard.execute("GetObject", () -> "ok"));
+    }
+
+    private R2CallGuard guard() {
+        R2Properties properties = new R2Properties();
+        properties.setGuard(settings);
+        return new R2CallGuard(properties, meterRegistry);
+    }
+
+    private int limit() {
+        return (int) meterRegistry.get("r2.guard.limit").gauge().value();
+    }
+
+    private int circuitState() {
+        return (int) meterRegistry.get("r2.guard.circuit.state").gauge().value();
+    }
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "ok";
+    }
+}
@@ -0,0 +1,120 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import com.mxverse.storage.r2vault.service.storage.R2HedgingPolicy;
+import com.mxverse.storage.r2vault.util.AbortScope;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Slow GETs are hedged only while the hedge budget lasts, and a winning hedge releases
+ * the primary through its abort scope.
+ */
+public class R2HedgingPolicyTest {
+
+    private R2Properties.Hedging settings;
+    private MeterRegistry meterRegistry;
+    private R2HedgingPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        settings = new R2Properties().getHedging();
+        settings.setEnabled(true);
+        settings.setSampleWindow(100);
+        settings.setMinDelay(Duration.ofMillis(20));
+        settings.setExecutorThreads(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        policy.shutdown();
+    }
+
+    @Test
+    void burstIsSpentThenSlowGetsAreNotHedged() {
+        settings.setBudgetRatio(0.0);
+        settings.setBudgetBurst(2);
+        warmUp();
+
+        List<String> winners = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            winners.add(policy.execute(R2HedgingPolicyTest::slowPrimary).response());
+        }
+
+        assertEquals(List.of("hedge", "hedge", "primary", "primary"), winners);
+        assertEquals(2.0, meterRegistry.counter("r2.hedge.issued").count());
+        assertEquals(2.0, meterRegistry.counter("r2.hedge.wins").count());
+        assertEquals(2.0, meterRegistry.counter("r2.hedge.budget.exhausted").count());
+    }
+
+    @Test
+    void budgetRefillsAtTheConfiguredRatio() {
+        settings.setBudgetRatio(0.5);
+        settings.setBudgetBurst(1);
+        warmUp();
+
+        for (int i = 0; i < 4; i++) {
+            policy.execute(R2HedgingPolicyTest::slowPrimary);
+        }
+
+        // Every primary earns half a hedge, so every second slow GET is hedged
+        assertEquals(2.0, meterRegistry.counter("r2.hedge.issued").count());
+        assertEquals(2.0, meterRegistry.counter("r2.hedge.budget.exhausted").count());
+    }
+
+    /**
+     * Records enough fast GETs for the hedge delay to settle at the minimum delay.
+     */
+    private void warmUp() {
+        policy = new R2HedgingPolicy(properties(), meterRegistry);
+        for (int i = 0; i < 100; i++) {
+            policy.execute(() -> response("primary"));
+        }
+        assertEquals(20.0, meterRegistry.get("r2.hedge.delay").gauge().value());
+    }
+
+    private R2Properties properties() {
+        R2Properties properties = new R2Properties();
+        properties.setHedging(settings);
+        return properties;
+    }
+
+    /**
+     * A primary that answers after 200 ms unless its request is aborted first. The hedge,
+     * sent from the policy's pool, answers at once.
+     */
+    private static ResponseInputStream<String> slowPrimary() {
+        if (Thread.currentThread().getName().startsWith("r2-hedge-")) {
+            return response("hedge");
+        }
+        CountDownLatch aborted = new CountDownLatch(1);
+        AbortScope.register(aborted::countDown);
+        try {
+            if (aborted.await(200, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Request aborted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return response("primary");
+    }
+
+    private static ResponseInputStream<String> response(String source) {
+        return new ResponseInputStream<>(source, AbortableInputStream.create(new ByteArrayInputStream(new byte[0])));
+    }
+}
@@ -0,0 +1,92 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.config.R2Properties;
+import com.mxverse.storage.r2vault.service.storage.R2ReadCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Readers of a shared GET receive the whole body, and a reader that falls more than the
+ * buffer behind continues on its own ranged GET.
+ */
+public class R2ReadCoalescerTest {
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final byte[] BODY = new byte[8 * BUFFER_SIZE];
+
+    private final List<String> fetchedRanges = new ArrayList<>();
+    private MeterRegistry meterRegistry;
+    private R2ReadCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        new Random(42).nextBytes(BODY);
+        R2Properties properties = new R2Properties();
+        properties.getCoalescing().setEnabled(true);
+        properties.getCoalescing().setBufferSize(DataSize.ofBytes(BUFFER_SIZE));
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new R2ReadCoalescer(properties, meterRegistry);
+    }
+
+    @Test
+    void readersInStepShareOneGet() throws IOException {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        try (InputStream a = coalescer.open("key", null, this::fetch);
+             InputStream b = coalescer.open("key", null, this::fetch)) {
+            byte[] chunk;
+            do {
+                chunk = a.readNBytes(256);
+                first.write(chunk);
+                second.write(b.readNBytes(256));
+            } while (chunk.length > 0);
+        }
+        assertArrayEquals(BODY, first.toByteArray());
+        assertArrayEquals(BODY, second.toByteArray());
+        assertEquals(List.of("<whole>"), fetchedRanges);
+        assertEquals(1.0, meterRegistry.counter("r2.coalesce.joins").count());
+    }
+
+    @Test
+    void laggingReaderIsEvictedOntoItsOwnGet() throws IOException {
+        try (InputStream fast = coalescer.open("key", null, this::fetch);
+             InputStream slow = coalescer.open("key", null, this::fetch)) {
+            byte[] head = slow.readNBytes(100);
+            assertArrayEquals(Arrays.copyOf(BODY, 100), head);
+
+            assertArrayEquals(BODY, fast.readAllBytes());
+
+            byte[] rest = slow.readAllBytes();
+            assertArrayEquals(Arrays.copyOfRange(BODY, 100, BODY.length), rest);
+        }
+        assertEquals(List.of("<whole>", "bytes=100-" + (BODY.length - 1)), fetchedRanges);
+        assertEquals(1.0, meterRegistry.counter("r2.coalesce.evictions").count());
+    }
+
+    private ResponseInputStream<GetObjectResponse> fetch(String range) {
+        fetchedRanges.add(range == null ? "<whole>" : range);
+        int from = range == null ? 0 : Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+        byte[] slice = Arrays.copyOfRange(BODY, from, BODY.length);
+        GetObjectResponse response = GetObjectResponse.builder()
+                .contentLength((long) slice.length)
+                .build();
+        return new ResponseInputStream<>(response, AbortableInputStream.create(new ByteArrayInputStream(slice)));
+    }
+}
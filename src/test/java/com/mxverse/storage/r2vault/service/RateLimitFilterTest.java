@@ -0,0 +1,95 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.config.RateLimitFilter;
+import com.mxverse.storage.r2vault.config.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests over a group's limit get 429 with a {@code Retry-After} matching the refill
+ * rate; per-IP and per-user buckets are kept apart.
+ */
+public class RateLimitFilterTest {
+
+    private MeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Limit perIp = new RateLimitProperties.Limit();
+        perIp.setCapacity(2);
+        perIp.setRefillPerSecond(0.5);
+        RateLimitProperties.Limit perUser = new RateLimitProperties.Limit();
+        perUser.setCapacity(3);
+        perUser.setRefillPerSecond(0.5);
+
+        RateLimitProperties.Group auth = new RateLimitProperties.Group();
+        auth.setPaths(List.of("/api/auth/**"));
+        auth.setPerIp(perIp);
+        RateLimitProperties.Group files = new RateLimitProperties.Group();
+        files.setPaths(List.of("/api/files/**"));
+        files.setPerUser(perUser);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getGroups().put("auth", auth);
+        properties.getGroups().put("files", files);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void overLimitGetsTooManyRequestsWithRetryAfter() throws Exception {
+        assertEquals(200, send("/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, send("/api/auth/login", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = send("/api/auth/login", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        // One token every two seconds
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("http.rate_limit.rejections")
+                .tag("group", "auth").tag("scope", "ip").counter().count());
+
+        assertEquals(200, send("/api/auth/login", "10.0.0.2").getStatus());
+        assertEquals(200, send("/api/health", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void userIsLimitedAcrossAddresses() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()));
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(200, send("/api/files/list", "10.0.0." + i).getStatus());
+        }
+        assertEquals(429, send("/api/files/list", "10.0.0.4").getStatus());
+
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("bob", null, List.of()));
+        assertEquals(200, send("/api/files/list", "10.0.0.4").getStatus());
+    }
+
+    private MockHttpServletResponse send(String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.dto.auth.AuthRequest;
+import com.mxverse.storage.r2vault.dto.auth.TokenResponse;
+import com.mxverse.storage.r2vault.service.auth.AuthService;
+import com.mxverse.storage.r2vault.service.auth.TokenRevocationService;
+import com.mxverse.storage.r2vault.util.JwtUtils;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Access tokens obtained through a refresh carry the device of the original login, so
+ * evicting that device revokes them like any other token of the device.
+ */
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+public class RefreshDeviceRevocationTest {
+
+    private static final String USERNAME = "refreshdevice";
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void evictingDeviceRevokesRefreshedAccessToken() throws InterruptedException {
+        authService.registerUser(new AuthRequest(USERNAME, PASSWORD, "device-1", "Phone",
+                "wrapped", "recovery", "salt", 100000, null));
+        TokenResponse login = authService.login(new AuthRequest(USERNAME, PASSWORD, "device-1", "Phone",
+                null, null, null, null, null));
+        entityManager.flush();
+        entityManager.clear();
+
+        VerifiedToken refreshed = jwtUtils.verify(authService.refreshToken(login.refreshToken()).accessToken());
+        String deviceId = jwtUtils.verify(login.accessToken()).deviceId();
+        assertNotNull(deviceId);
+        assertEquals(deviceId, refreshed.deviceId());
+        assertFalse(tokenRevocationService.isRevoked(refreshed));
+
+        // Revocations have second precision and spare tokens issued in the same second
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 50);
+        authService.login(new AuthRequest(USERNAME, PASSWORD, "device-2", "Laptop",
+                null, null, null, null, deviceId));
+        // Revocations reach the filter once their transaction commits
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertTrue(tokenRevocationService.isRevoked(refreshed));
+    }
+}
@@ -0,0 +1,79 @@
+package com.mxverse.storage.r2vault.service;
+
+import com.mxverse.storage.r2vault.repository.auth.RevokedTokenRepository;
+import com.mxverse.storage.r2vault.service.auth.TokenRevocationService;
+import com.mxverse.storage.r2vault.util.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A revoked token stays rejected when the revocation filter is rebuilt, including a
+ * revocation that commits while the rebuild is reading the table.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TokenRevocationRebuildTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        revokedTokenRepository.deleteAll();
+        tokenRevocationService.rebuild();
+    }
+
+    @Test
+    void revokedTokenIsRejectedAfterRebuild() {
+        VerifiedToken token = token();
+        assertFalse(tokenRevocationService.isRevoked(token));
+
+        tokenRevocationService.revoke(token);
+        assertTrue(tokenRevocationService.isRevoked(token));
+
+        tokenRevocationService.rebuild();
+        assertTrue(tokenRevocationService.isRevoked(token));
+    }
+
+    @Test
+    void revocationCommittedDuringRebuildIsKept() {
+        VerifiedToken token = token();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tokenRevocationService.revoke(token);
+            // The rebuild reads the table before the revocation commits
+            Thread rebuild = new Thread(tokenRevocationService::rebuild);
+            rebuild.start();
+            try {
+                rebuild.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(tokenRevocationService.isRevoked(token));
+    }
+
+    private static VerifiedToken token() {
+        Instant now = Instant.now();
+        return new VerifiedToken(UUID.randomUUID().toString(), "revocationrebuild", 0, null,
+                now, now.plus(Duration.ofMinutes(15)));
+    }
+}
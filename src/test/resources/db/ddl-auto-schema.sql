@@ -0,0 +1,116 @@
+-- The schema Hibernate generated with ddl-auto: update from the entities as they were before
+-- the Flyway migrations were introduced, with constraint names as Hibernate generates them.
+-- Used by FlywayMigrationTest to check that the migrations upgrade such a database.
+
+create table users
+(
+    id       bigint generated by default as identity,
+    password varchar(255) not null,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table account_keys
+(
+    id                   bigint generated by default as identity,
+    kdf_iterations       integer      not null,
+    user_id              bigint       not null unique,
+    kdf_salt             varchar(255) not null,
+    recovery_wrapped_key TEXT,
+    wrapped_key          TEXT         not null,
+    primary key (id)
+);
+
+create table devices
+(
+    is_active      boolean                     not null,
+    last_active_at timestamp(6) with time zone not null,
+    user_id        bigint                      not null,
+    device_id      varchar(255)                not null,
+    id             varchar(255)                not null,
+    name           varchar(255),
+    platform       varchar(255),
+    primary key (id)
+);
+
+create table file_records
+(
+    created_at        timestamp(6) with time zone not null,
+    size              bigint                      not null,
+    user_id           bigint                      not null,
+    algorithm         varchar(255),
+    content_type      varchar(255),
+    encrypted_key     TEXT,
+    id                varchar(255)                not null,
+    iv                TEXT,
+    original_filename TEXT                        not null,
+    s3_key            varchar(255)                not null unique,
+    primary key (id)
+);
+
+create table upload_sessions
+(
+    total_parts    integer                     not null,
+    version        integer,
+    created_at     timestamp(6) with time zone not null,
+    expires_at     timestamp(6) with time zone not null,
+    part_size      bigint                      not null,
+    total_size     bigint                      not null,
+    updated_at     timestamp(6) with time zone,
+    user_id        bigint                      not null,
+    file_record_id varchar(255)                not null,
+    id             varchar(255)                not null,
+    status         varchar(255)                not null check (status in ('INITIATED', 'IN_PROGRESS', 'COMPLETED', 'ABORTED')),
+    upload_id      TEXT                        not null,
+    primary key (id)
+);
+
+create table uploaded_parts
+(
+    part_number integer                     not null,
+    created_at  timestamp(6) with time zone not null,
+    size        bigint                      not null,
+    etag        varchar(255)                not null,
+    id          varchar(255)                not null,
+    session_id  varchar(255)                not null,
+    primary key (id),
+    constraint UKl0sfmw9t0w0b8hd6ahvs0cyju unique (session_id, part_number)
+);
+
+create table refresh_tokens
+(
+    expiry_date timestamp(6) with time zone not null,
+    id          bigint generated by default as identity,
+    user_id     bigint unique,
+    token       varchar(255)                not null unique,
+    primary key (id)
+);
+
+alter table if exists account_keys
+    add constraint FKk2qvyodtu1qfkqbg3sgcpk1n3 foreign key (user_id) references users;
+alter table if exists devices
+    add constraint FKrfbri1ymrwywdydc4dgywe1bt foreign key (user_id) references users;
+alter table if exists file_records
+    add constraint FKqb2v6cqwu5rw5mppyxmqfwy9g foreign key (user_id) references users;
+alter table if exists upload_sessions
+    add constraint FKa4j1pwo6e0u1wst4x6j7kwgbr foreign key (user_id) references users;
+alter table if exists upload_sessions
+    add constraint FK9r1yvmcmgyq0hy8jjayhrr4c7 foreign key (file_record_id) references file_records;
+alter table if exists uploaded_parts
+    add constraint FKg7b4m3ywd2mlh3ox2b5tn3o6u foreign key (session_id) references upload_sessions;
+alter table if exists refresh_tokens
+    add constraint FK1lih5y2npsf8u5o3vhdb9y0os foreign key (user_id) references users;
+
+-- Data written by the application before the upgrade
+insert into users (username, password) values ('legacy', '$2a$10$legacyhashlegacyhashlegacyhashlegacyhashlegacyhash12');
+insert into devices (id, user_id, device_id, name, platform, last_active_at, is_active)
+values ('6f1c8f9e-5b7a-4c3d-9e2f-1a2b3c4d5e6f', 1, 'phone', 'Phone', 'android', now(), true);
+insert into file_records (id, user_id, s3_key, original_filename, size, created_at)
+values ('0b6f7c1e-2d3a-4b5c-8d9e-0f1a2b3c4d5e', 1, 'users/legacy/a.bin', 'a.bin', 10485760, now());
+insert into upload_sessions (id, user_id, file_record_id, upload_id, part_size, total_parts, total_size, status,
+                             version, expires_at, created_at, updated_at)
+values ('3c2b1a09-8f7e-4d6c-9b5a-4e3d2c1b0a9f', 1, '0b6f7c1e-2d3a-4b5c-8d9e-0f1a2b3c4d5e', 'upload-1', 5242880, 2,
+        10485760, 'IN_PROGRESS', 1, now() + interval '7 days', now(), now());
+insert into uploaded_parts (id, session_id, part_number, etag, size, created_at)
+values ('9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d', '3c2b1a09-8f7e-4d6c-9b5a-4e3d2c1b0a9f', 1, 'etag-1', 5242880, now());
+insert into refresh_tokens (user_id, token, expiry_date) values (1, 'legacy-refresh-token', now() + interval '7 days');